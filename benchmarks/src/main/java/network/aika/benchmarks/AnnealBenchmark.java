@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.text.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Document#anneal()} on synthetic documents that have already been processed
+ * up to the end of the inference phase.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnnealBenchmark {
+
+    @Param({"100"})
+    public int vocabularySize;
+
+    @Param({"10", "100"})
+    public int documentLength;
+
+    private SyntheticModel model;
+
+    private Document doc;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new SyntheticModel(vocabularySize, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void createDocument() {
+        doc = model.createInferredDocument(documentLength);
+    }
+
+    @TearDown(Level.Invocation)
+    public void disconnectDocument() {
+        doc.disconnect();
+    }
+
+    @Benchmark
+    public Document anneal() {
+        doc.anneal();
+        return doc;
+    }
+}
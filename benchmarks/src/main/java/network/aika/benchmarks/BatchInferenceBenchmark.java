@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Config;
+import network.aika.ThoughtBatch;
+import network.aika.text.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.steps.Phase.INFERENCE;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+
+/**
+ * Compares processing many short synthetic documents one at a time with processing them as a
+ * {@link ThoughtBatch}. Both variants run the inference phase, anneal and disconnect every document.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInferenceBenchmark {
+
+    @Param({"100"})
+    public int vocabularySize;
+
+    @Param({"1", "3"})
+    public int documentLength;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private SyntheticModel model;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new SyntheticModel(vocabularySize, 42);
+    }
+
+    @Benchmark
+    public Document sequential() {
+        Document doc = null;
+        for(int i = 0; i < batchSize; i++) {
+            doc = model.createDocument(documentLength);
+            doc.process(MAX_ROUND, INFERENCE);
+            doc.anneal();
+            doc.disconnect();
+        }
+        return doc;
+    }
+
+    @Benchmark
+    public ThoughtBatch<Document> batch() {
+        ThoughtBatch<Document> batch = new ThoughtBatch<>(model.getModel(), new Config());
+        for(int i = 0; i < batchSize; i++)
+            batch.add(model.createDocument(documentLength, batch.getConfig()));
+
+        batch.process(MAX_ROUND, INFERENCE);
+        batch.anneal();
+        batch.disconnect();
+        return batch;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so that they can be compared between releases.
+ * All the regular JMH command line options are supported, e.g. a benchmark name filter. Unless the
+ * result file is specified with {@code -rff}, the results are written to {@code aika-benchmarks.json}.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar [JMH options]
+ * </pre>
+ *
+ * @author Lukas Molzberger
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_RESULT_FILE = "aika-benchmarks.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+
+        Options opts = new OptionsBuilder()
+                .parent(cmdOptions)
+                .resultFormat(cmdOptions.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cmdOptions.getResult().orElse(DEFAULT_RESULT_FILE))
+                .build();
+
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.fields.Field;
+import network.aika.fields.FieldOutput;
+import network.aika.fields.InputField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.fields.Fields.add;
+import static network.aika.fields.Fields.scale;
+
+/**
+ * Measures the propagation of updates through a graph of fields, starting at
+ * {@link Field#triggerUpdate(boolean, double)} of an input field. The graph consists of
+ * {@code depth} layers with {@code width} fields each, where every field is the sum of two
+ * scaled fields of the previous layer.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldPropagationBenchmark {
+
+    @Param({"4", "16"})
+    public int width;
+
+    @Param({"4", "16"})
+    public int depth;
+
+    private InputField input;
+
+    private double sign = 1.0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        input = new InputField(null, "input", 0.0);
+
+        FieldOutput[] layer = new FieldOutput[width];
+        for(int i = 0; i < width; i++)
+            layer[i] = scale(null, "s-0-" + i, 0.5, input);
+
+        for(int d = 1; d < depth; d++) {
+            FieldOutput[] nextLayer = new FieldOutput[width];
+            for(int i = 0; i < width; i++) {
+                nextLayer[i] = add(
+                        null,
+                        "a-" + d + "-" + i,
+                        scale(null, "l-" + d + "-" + i, 0.5, layer[i]),
+                        scale(null, "r-" + d + "-" + i, 0.5, layer[(i + 1) % width])
+                );
+            }
+            layer = nextLayer;
+        }
+    }
+
+    @Benchmark
+    public double triggerUpdate() {
+        sign = -sign;
+        input.triggerUpdate(false, sign);
+        return input.getValue();
+    }
+}
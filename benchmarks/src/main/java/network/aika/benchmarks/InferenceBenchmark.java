@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.text.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.steps.Phase.INFERENCE;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+
+/**
+ * Measures {@link network.aika.Thought#process(int, network.aika.steps.Phase)} for the inference
+ * phase of synthetic documents, including the creation of the token activations.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InferenceBenchmark {
+
+    @Param({"100"})
+    public int vocabularySize;
+
+    @Param({"10", "100"})
+    public int documentLength;
+
+    private SyntheticModel model;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new SyntheticModel(vocabularySize, 42);
+    }
+
+    @Benchmark
+    public Document process() {
+        Document doc = model.createDocument(documentLength);
+        doc.process(MAX_ROUND, INFERENCE);
+        doc.disconnect();
+        return doc;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Model;
+import network.aika.suspension.FSSuspensionCallback;
+import network.aika.suspension.MappedSuspensionCallback;
+import network.aika.suspension.SuspensionCallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the store and retrieve throughput of the file based suspension callbacks.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuspensionBenchmark {
+
+    private static final int NUM_RECORDS = 10000;
+
+    @Param({"FS", "MAPPED"})
+    public String store;
+
+    @Param({"256", "4096"})
+    public int recordSize;
+
+    private Path dir;
+    private Model model;
+    private SuspensionCallback callback;
+
+    private byte[] data;
+    private long[] ids;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("aika-benchmark");
+        callback = switch (store) {
+            case "FS" -> new FSSuspensionCallback(dir, "benchmark", false);
+            case "MAPPED" -> new MappedSuspensionCallback(dir, "benchmark", false);
+            default -> throw new IllegalArgumentException(store);
+        };
+
+        model = new Model(callback);
+        model.open(true);
+
+        random = new Random(42);
+        data = new byte[recordSize];
+        random.nextBytes(data);
+
+        ids = new long[NUM_RECORDS];
+        for(int i = 0; i < NUM_RECORDS; i++) {
+            ids[i] = callback.createId();
+            callback.store(ids[i], null, null, data);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        model.close();
+
+        File[] files = dir.toFile().listFiles();
+        if(files != null) {
+            for (File f : files)
+                f.delete();
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long store() throws IOException {
+        long id = callback.createId();
+        callback.store(id, null, null, data);
+        return id;
+    }
+
+    @Benchmark
+    public byte[] retrieve() throws IOException {
+        return callback.retrieve(ids[random.nextInt(NUM_RECORDS)]);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Config;
+import network.aika.Model;
+import network.aika.elements.activations.TokenActivation;
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.InhibitoryNeuron;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InhibitorySynapse;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.elements.synapses.NegativeFeedbackSynapse;
+import network.aika.elements.synapses.PatternSynapse;
+import network.aika.enums.Scope;
+import network.aika.text.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static network.aika.steps.Phase.INFERENCE;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+
+/**
+ * A synthetic network used by the benchmarks. Every token of the vocabulary has two competing
+ * binding neurons, which are mutually exclusive through an inhibitory neuron, and a pattern neuron
+ * on top of them. Documents are generated from a seeded random sequence of tokens, so that every
+ * run processes the same inputs.
+ *
+ * @author Lukas Molzberger
+ */
+public class SyntheticModel {
+
+    private final Model model = new Model();
+
+    private final List<TokenNeuron> tokens = new ArrayList<>();
+
+    private final Random random;
+
+    public SyntheticModel(int vocabularySize, long seed) {
+        random = new Random(seed);
+
+        for(int i = 0; i < vocabularySize; i++)
+            initTokenNetwork("T" + i);
+    }
+
+    private void initTokenNetwork(String label) {
+        TokenNeuron in = new TokenNeuron().init(model, label);
+        in.setTokenLabel(label);
+        in.setAllowTraining(false);
+        tokens.add(in);
+
+        InhibitoryNeuron inhib = new InhibitoryNeuron(Scope.SAME).init(model, "I-" + label);
+        PatternNeuron pattern = new PatternNeuron().init(model, "P-" + label);
+
+        for(int i = 0; i < 2; i++) {
+            BindingNeuron bn = new BindingNeuron().init(model, "B" + i + "-" + label);
+
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(in, bn)
+                    .adjustBias();
+
+            new InhibitorySynapse(Scope.INPUT)
+                    .setWeight(1.0)
+                    .init(bn, inhib);
+
+            new NegativeFeedbackSynapse()
+                    .setWeight(-100.0)
+                    .init(inhib, bn);
+
+            new PatternSynapse()
+                    .setWeight(10.0)
+                    .init(bn, pattern)
+                    .adjustBias();
+
+            bn.setBias(1.0 + (0.5 * i));
+        }
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Creates a document of the given number of tokens and adds the token activations,
+     * without processing the queue.
+     */
+    public Document createDocument(int length) {
+        return createDocument(length, new Config());
+    }
+
+    /**
+     * Creates a document of the given number of tokens using the given config, e.g. the shared config
+     * of a batch.
+     */
+    public Document createDocument(int length, Config conf) {
+        List<TokenNeuron> docTokens = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < length; i++) {
+            TokenNeuron tn = tokens.get(random.nextInt(tokens.size()));
+            docTokens.add(tn);
+            sb.append(tn.getTokenLabel());
+            sb.append(' ');
+        }
+
+        Document doc = new Document(model, sb.toString());
+        doc.setConfig(conf);
+
+        int pos = 0;
+        int begin = 0;
+        for(TokenNeuron tn: docTokens) {
+            int end = begin + tn.getTokenLabel().length();
+            TokenActivation tAct = doc.addToken(tn, pos++, begin, end);
+            tAct.setNet(10.0);
+            begin = end + 1;
+        }
+        return doc;
+    }
+
+    /**
+     * Creates a document and processes it up to the end of the inference phase.
+     */
+    public Document createInferredDocument(int length) {
+        Document doc = createDocument(length);
+        doc.process(MAX_ROUND, INFERENCE);
+        return doc;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.benchmarks;
+
+import network.aika.Model;
+import network.aika.meta.AbstractTemplateModel;
+import network.aika.meta.SyllableTemplateModel;
+import network.aika.parser.Context;
+import network.aika.parser.TrainingParser;
+import network.aika.text.Document;
+import network.aika.tokenizer.SimpleCharTokenizer;
+import network.aika.tokenizer.Tokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.parser.ParserPhase.COUNTING;
+import static network.aika.parser.ParserPhase.TRAINING;
+
+/**
+ * Measures {@link TrainingParser#process(String, Context, network.aika.parser.ParserPhase)} on the
+ * syllable template model. Since training instantiates new neurons, the model keeps growing over
+ * the course of a trial, just like it does during a real training run.
+ *
+ * @author Lukas Molzberger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TrainingBenchmark {
+
+    private static final String[] WORDS = new String[] {
+            "der", "die", "das", "und", "sie", "nicht", "mit", "sich", "auf", "dem",
+            "konnte", "wollte", "sagte", "mutter", "vater", "schwester", "bruder", "koenig",
+            "prinzessin", "garten", "wasser", "brunnen", "schloss", "walde", "haeuschen",
+            "aschenputtel", "rotkaeppchen", "schneewitchen", "zwerge", "goldene"
+    };
+
+    private SyllableParser parser;
+
+    private int wordIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parser = new SyllableParser();
+
+        for(String w: WORDS)
+            parser.process(w, null, COUNTING);
+
+        parser.getTemplateModel().initTemplates();
+        wordIndex = 0;
+    }
+
+    @Benchmark
+    public Document train() {
+        String w = WORDS[wordIndex++ % WORDS.length];
+        return parser.process(w, null, TRAINING);
+    }
+
+    private static class SyllableParser extends TrainingParser<Context> {
+
+        private final AbstractTemplateModel syllableModel;
+
+        private final Tokenizer charTokenizer;
+
+        SyllableParser() {
+            Model model = new Model();
+
+            syllableModel = new SyllableTemplateModel(model);
+            syllableModel.initStaticNeurons();
+
+            model.setN(0);
+
+            charTokenizer = new SimpleCharTokenizer(syllableModel);
+        }
+
+        @Override
+        protected AbstractTemplateModel getTemplateModel() {
+            return syllableModel;
+        }
+
+        @Override
+        public Tokenizer getTokenizer() {
+            return charTokenizer;
+        }
+    }
+}
@@ -37,6 +37,9 @@ public class Config {
     private boolean trainingEnabled;
     private boolean countingEnabled;
     private boolean metaInstantiationEnabled;
+    private boolean metricsEnabled;
+    private boolean linkingCandidateIndexEnabled;
+    private boolean poolingEnabled;
 
     public double getLearnRate(boolean isAbstract) {
         return isAbstract ? learnRateForAbstract : learnRate;
@@ -116,6 +119,45 @@ public class Config {
         return this;
     }
 
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Enables the collection of step timings and counters for the thought this config is assigned to.
+     * See {@link network.aika.metrics.ThoughtMetrics}.
+     */
+    public Config setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+
+    public boolean isLinkingCandidateIndexEnabled() {
+        return linkingCandidateIndexEnabled;
+    }
+
+    /**
+     * Enables the memoization of the candidates reached by the binding and pattern visitors.
+     * See {@link network.aika.visitor.LinkingCandidateIndex}. Disabled by default.
+     */
+    public Config setLinkingCandidateIndexEnabled(boolean linkingCandidateIndexEnabled) {
+        this.linkingCandidateIndexEnabled = linkingCandidateIndexEnabled;
+        return this;
+    }
+
+    public boolean isPoolingEnabled() {
+        return poolingEnabled;
+    }
+
+    /**
+     * Enables the reuse of processed field steps across the documents of a model.
+     * See {@link network.aika.steps.FieldStepPool}.
+     */
+    public Config setPoolingEnabled(boolean poolingEnabled) {
+        this.poolingEnabled = poolingEnabled;
+        return this;
+    }
+
     public String toString() {
         return "Alpha: " + alpha + "\n" +
                 "LearnRate" + learnRate + "\n\n";
@@ -22,11 +22,18 @@ import network.aika.callbacks.NeuronProducer;
 import network.aika.suspension.SuspensionCallback;
 import network.aika.elements.neurons.Neuron;
 import network.aika.elements.neurons.NeuronProvider;
+import network.aika.metrics.ModelMetrics;
+import network.aika.suspension.NeuronCache;
+import network.aika.steps.FieldStepPool;
+import network.aika.suspension.NeuronPrefetcher;
 import network.aika.suspension.SuspensionMode;
+import network.aika.suspension.TypeRegistry;
 import network.aika.utils.Writable;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -44,12 +51,24 @@ public class Model implements Writable {
     private final AtomicLong retrievalCounter = new AtomicLong(0);
     private final AtomicLong thoughtIdCounter = new AtomicLong(0);
 
-    public final Map<Long, NeuronProvider> providers = new TreeMap<>();
+    public final Map<Long, NeuronProvider> providers = new ConcurrentHashMap<>();
 
-    private Thought currentThought;
+    private final ThreadLocal<Thought> currentThought = new ThreadLocal<>();
+
+    private final Set<Thought> activeThoughts = ConcurrentHashMap.newKeySet();
+
+    private NeuronCache neuronCache;
+
+    private NeuronPrefetcher neuronPrefetcher;
+
+    private final ModelMetrics metrics = new ModelMetrics();
 
     private Supplier<Writable> customDataInstanceSupplier;
 
+    private final TypeRegistry typeRegistry = new TypeRegistry();
+
+    private final Queue<FieldStepPool> fieldStepPools = new ConcurrentLinkedQueue<>();
+
     public Model() {
         this(new InMemorySuspensionCallback());
     }
@@ -66,6 +85,10 @@ public class Model implements Writable {
         suspensionCallback.putLabel(label, id);
     }
 
+    public TypeRegistry getTypeRegistry() {
+        return typeRegistry;
+    }
+
     public Supplier<Writable> getCustomDataInstanceSupplier() {
         return customDataInstanceSupplier;
     }
@@ -86,12 +109,92 @@ public class Model implements Writable {
         return suspensionCallback.createId();
     }
 
+    /**
+     * The current thought is tracked per thread, so that several documents can be processed
+     * concurrently against the same model, as long as each thread works on its own thought.
+     */
     public Thought getCurrentThought() {
-        return currentThought;
+        return currentThought.get();
+    }
+
+    public void setCurrentThought(Thought t) {
+        if(t != null)
+            currentThought.set(t);
+        else
+            currentThought.remove();
+    }
+
+    /**
+     * Returns the accumulated metrics of all disconnected thoughts, that had metrics enabled in their config.
+     */
+    public ModelMetrics getMetrics() {
+        return metrics;
+    }
+
+    public NeuronCache getNeuronCache() {
+        return neuronCache;
+    }
+
+    /**
+     * Bounds the number of neurons kept in memory. Neurons exceeding the budget of the cache are suspended
+     * automatically, without requiring calls to {@link #suspendUnusedNeurons(long, SuspensionMode)}.
+     */
+    public void setNeuronCache(NeuronCache neuronCache) {
+        this.neuronCache = neuronCache;
+    }
+
+    public NeuronPrefetcher getNeuronPrefetcher() {
+        return neuronPrefetcher;
+    }
+
+    /**
+     * If set, the neurons that are reachable from the tokens of a document are reactivated in the
+     * background, while the document is still being tokenized.
+     */
+    public void setNeuronPrefetcher(NeuronPrefetcher neuronPrefetcher) {
+        this.neuronPrefetcher = neuronPrefetcher;
+    }
+
+    public void prefetch(NeuronProvider p) {
+        if(neuronPrefetcher != null)
+            neuronPrefetcher.prefetch(p);
+    }
+
+    public void register(Thought t) {
+        activeThoughts.add(t);
     }
 
-    public void setCurrentThought(Thought currentThought) {
-        this.currentThought = currentThought;
+    public void unregister(Thought t) {
+        activeThoughts.remove(t);
+    }
+
+    public void unregister(Collection<? extends Thought> ts) {
+        activeThoughts.removeAll(ts);
+    }
+
+    /**
+     * Returns the thoughts that have been created for this model and that have not been disconnected yet.
+     */
+    public Stream<Thought> getActiveThoughts() {
+        return activeThoughts.stream();
+    }
+
+    /**
+     * Hands out a pool of field steps to a thought that has pooling enabled. Pools that were released by
+     * previously disconnected thoughts are reused.
+     */
+    public FieldStepPool acquireFieldStepPool() {
+        FieldStepPool pool = fieldStepPools.poll();
+        return pool != null ? pool : new FieldStepPool();
+    }
+
+    public void releaseFieldStepPool(FieldStepPool pool) {
+        fieldStepPools.add(pool);
+    }
+
+    public void addResidentNeuron(NeuronProvider p) {
+        if(neuronCache != null)
+            neuronCache.add(p);
     }
 
     public Collection<NeuronProvider> getActiveNeurons() {
@@ -103,11 +206,17 @@ public class Model implements Writable {
         if(n != null)
             return n;
 
-        n = onNewCallback.createNeuron(tokenLabel);
-        n.addProvider(this);
+        synchronized (this) {
+            n = getNeuronByLabel(tokenLabel);
+            if(n != null)
+                return n;
+
+            n = onNewCallback.createNeuron(tokenLabel);
+            n.addProvider(this);
 
-        suspensionCallback.putLabel(tokenLabel, n.getId());
-        n.getProvider().save();
+            suspensionCallback.putLabel(tokenLabel, n.getId());
+            n.getProvider().save();
+        }
         return n;
     }
 
@@ -122,7 +231,7 @@ public class Model implements Writable {
                 .map(this::lookupNeuronProvider);
     }
 
-    public void applyMovingAverage(Config trainingConfig) {
+    public synchronized void applyMovingAverage(Config trainingConfig) {
         if(trainingConfig.getAlpha() != null) {
             N *= trainingConfig.getAlpha();
         }
@@ -136,37 +245,35 @@ public class Model implements Writable {
         this.suspensionCallback = suspensionCallback;
     }
 
-    public void addToN(int l) {
+    public synchronized void addToN(int l) {
         N += l;
     }
 
-    public long getN() {
+    public synchronized long getN() {
         return N;
     }
 
-    public void setN(long n) {
+    public synchronized void setN(long n) {
         N = n;
     }
 
     public NeuronProvider lookupNeuronProvider(Long id) {
-        synchronized (providers) {
-            NeuronProvider n = providers.get(id);
-            if(n != null)
-                return n;
+        NeuronProvider n = providers.get(id);
+        if(n != null)
+            return n;
 
-            return new NeuronProvider(this, id);
-        }
+        return providers.computeIfAbsent(id, i ->
+                new NeuronProvider(this, i)
+        );
     }
 
     public void suspendUnusedNeurons(long retrievalCount, SuspensionMode sm) {
-        synchronized (providers) {
-            providers
-                    .values()
-                    .stream()
-                    .filter(n -> !n.isSuspended())
-                    .toList()
-                    .forEach(n -> suspend(retrievalCount, n, sm));
-        }
+        providers
+                .values()
+                .stream()
+                .filter(n -> !n.isSuspended())
+                .toList()
+                .forEach(n -> suspend(retrievalCount, n, sm));
     }
 
     public void suspendAll(SuspensionMode sm) {
@@ -181,15 +288,11 @@ public class Model implements Writable {
     }
 
     public void register(NeuronProvider p) {
-        synchronized (providers) {
-            providers.put(p.getId(), p);
-        }
+        providers.put(p.getId(), p);
     }
 
     public void unregister(NeuronProvider p) {
-        synchronized (providers) {
-            providers.remove(p.getId());
-        }
+        providers.remove(p.getId(), p);
     }
 
     public void open(boolean create) throws IOException {
@@ -198,20 +301,24 @@ public class Model implements Writable {
         else
             suspensionCallback.loadIndex(this);
 
-        suspensionCallback.open();
+        suspensionCallback.open(this);
     }
 
     public void close() throws IOException {
+        if(neuronPrefetcher != null) {
+            try {
+                neuronPrefetcher.awaitIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
         suspensionCallback.close(this);
     }
 
     public Object modelClass(String clazzName) {
-        try {
-            Class clazz = getClass().getClassLoader().loadClass(clazzName);
-            return clazz.getConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return typeRegistry.newInstance(clazzName);
     }
 
     @Override
@@ -23,15 +23,22 @@ import network.aika.debugger.EventType;
 import network.aika.callbacks.InstantiationCallback;
 import network.aika.elements.activations.Activation;
 import network.aika.elements.Element;
+import network.aika.elements.links.Link;
 import network.aika.elements.Timestamp;
 import network.aika.exceptions.PreviousThoughtNotDisconnected;
 import network.aika.fields.*;
+import network.aika.metrics.ThoughtMetrics;
 import network.aika.elements.PreActivation;
 import network.aika.elements.neurons.NeuronProvider;
+import network.aika.utils.LongObjectMap;
 import network.aika.text.Range;
 import network.aika.steps.Phase;
-import network.aika.steps.keys.QueueKey;
+import network.aika.visitor.LinkStack;
+import network.aika.visitor.LinkingCandidateIndex;
+import network.aika.steps.FieldStep;
+import network.aika.steps.FieldStepPool;
 import network.aika.steps.Step;
+import network.aika.steps.StepQueue;
 import network.aika.steps.activation.InactiveLinks;
 import network.aika.steps.activation.Instantiation;
 import network.aika.steps.thought.AnnealStep;
@@ -68,14 +75,22 @@ public abstract class Thought implements Element {
 
     int round = 0;
 
-    private final NavigableMap<QueueKey, Step> queue = new TreeMap<>(QueueKey.COMPARATOR);
+    private final StepQueue queue = new StepQueue();
 
     private final TreeMap<Integer, Activation> activationsById = new TreeMap<>();
-    private final Map<NeuronProvider, PreActivation<? extends Activation>> actsPerNeuron = new HashMap<>();
+    private final LongObjectMap<PreActivation<?>> preActivations = new LongObjectMap<>();
     private final Set<EventListener> eventListeners = new HashSet<>();
 
     private Config config;
 
+    private ThoughtMetrics metrics;
+    private boolean metricsReported;
+
+    private final LinkStack linkStack = new LinkStack();
+    private final LinkingCandidateIndex linkingCandidateIndex = new LinkingCandidateIndex();
+
+    private FieldStepPool fieldStepPool;
+
     private ActivationCheckCallback activationCheckCallback;
     private InstantiationCallback instantiationCallback;
 
@@ -92,6 +107,7 @@ public abstract class Thought implements Element {
             throw new PreviousThoughtNotDisconnected(m.getCurrentThought(), this);
         }
         m.setCurrentThought(this);
+        m.register(this);
     }
 
     public int getRound(boolean nextRound) {
@@ -108,6 +124,9 @@ public abstract class Thought implements Element {
     }
 
     public long getNewVisitorId() {
+        if(metrics != null)
+            metrics.onNewVisitor();
+
         return visitorCounter++;
     }
 
@@ -144,6 +163,48 @@ public abstract class Thought implements Element {
 
     public void setConfig(Config config) {
         this.config = config;
+
+        if(config.isMetricsEnabled() && metrics == null)
+            metrics = new ThoughtMetrics();
+
+        if(config.isPoolingEnabled() && fieldStepPool == null)
+            fieldStepPool = model.acquireFieldStepPool();
+    }
+
+    /**
+     * Returns the metrics of this thought, or null if they are not enabled in the config.
+     */
+    public ThoughtMetrics getMetrics() {
+        return metrics;
+    }
+
+    public LinkStack getLinkStack() {
+        return linkStack;
+    }
+
+    /**
+     * Returns the index of memoized linking candidates, or null if it is disabled in the config.
+     */
+    public LinkingCandidateIndex getLinkingCandidateIndex() {
+        if(config == null || !config.isLinkingCandidateIndexEnabled())
+            return null;
+
+        return linkingCandidateIndex;
+    }
+
+    public <E extends Element> FieldStep<E> createFieldStep(E e, Phase p, int round, QueueField qf) {
+        return fieldStepPool != null ?
+                fieldStepPool.acquire(e, p, round, qf) :
+                new FieldStep<>(e, p, round, qf);
+    }
+
+    /**
+     * Returns a processed field step to the pool. Steps are not pooled while event listeners are registered,
+     * since a listener might still refer to them.
+     */
+    public void releaseFieldStep(FieldStep s) {
+        if(fieldStepPool != null && eventListeners.isEmpty())
+            fieldStepPool.release(s);
     }
 
     public Step getCurrentStep() {
@@ -157,6 +218,9 @@ public abstract class Thought implements Element {
     }
 
     public void onElementEvent(EventType et, Element e) {
+        if(metrics != null && et == CREATE)
+            metrics.onCreate(e);
+
         callEventListener(el ->
                 el.onElementEvent(et, e)
         );
@@ -198,24 +262,45 @@ public abstract class Thought implements Element {
         activationsById.put(act.getId(), act);
     }
 
-    public void register(NeuronProvider np, PreActivation<? extends Activation> acts) {
-        actsPerNeuron.put(np, acts);
+    public <A extends Activation> PreActivation<A> getPreActivation(NeuronProvider np) {
+        return (PreActivation<A>) preActivations.get(np.getId());
+    }
+
+    public <A extends Activation> PreActivation<A> getOrCreatePreActivation(NeuronProvider np) {
+        PreActivation<A> acts = getPreActivation(np);
+        if(acts == null) {
+            acts = new PreActivation<>();
+            preActivations.put(np.getId(), acts);
+        }
+        return acts;
     }
 
     public void addStep(Step s) {
-        s.createQueueKey(getNextTimestamp());
-        queue.put(s.getQueueKey(), s);
+        s.updateQueueKey(timestampCounter++);
+        queue.add(s);
+
+        if(metrics != null)
+            metrics.updateQueueSize(queue.size());
+
+        queueEvent(ADDED, s);
+    }
+
+    /**
+     * Re-sorts an already queued step in place, after its sort value has changed.
+     */
+    public void updateStep(Step s) {
+        s.updateQueueKey(timestampCounter++);
+        queue.update(s);
         queueEvent(ADDED, s);
     }
 
     public void removeStep(Step s) {
-        Step removedStep = queue.remove(s.getQueueKey());
-        assert removedStep != null;
-        s.removeQueueKey();
+        boolean removed = queue.remove(s);
+        assert removed;
     }
 
     public Collection<Step> getQueue() {
-        return queue.values();
+        return queue.toSortedList();
     }
 
     public Range getRange() {
@@ -227,8 +312,7 @@ public abstract class Thought implements Element {
             if(checkMaxPhaseReached(maxRound, maxPhase))
                 break;
 
-            currentStep = queue.pollFirstEntry().getValue();
-            currentStep.removeQueueKey();
+            currentStep = queue.poll();
 
             timestampOnProcess = getCurrentTimestamp();
 
@@ -236,21 +320,31 @@ public abstract class Thought implements Element {
 
             updateRound(currentStep.getRound());
 
-            currentStep.process();
+            if(metrics != null)
+                processWithMetrics(currentStep);
+            else
+                currentStep.process();
+
             queueEvent(AFTER, currentStep);
             currentStep = null;
         }
     }
 
+    private void processWithMetrics(Step s) {
+        long start = System.nanoTime();
+        s.process();
+        metrics.recordStep(s, System.nanoTime() - start);
+    }
+
     private boolean checkMaxPhaseReached(int maxRound, Phase maxPhase) {
-        QueueKey fe = queue.firstEntry().getKey();
-        if(fe.getRound() > maxRound)
+        Step fs = queue.peek();
+        if(fs.getQueuedRound() > maxRound)
             return true;
 
         if(maxPhase == null)
             return false;
 
-        return maxPhase.compareTo(fe.getPhase()) < 0;
+        return maxPhase.compareTo(fs.getQueuedPhase()) < 0;
     }
 
     /**
@@ -274,7 +368,7 @@ public abstract class Thought implements Element {
 
     public <E extends Element> List<Step> getStepsByElement(E element) {
         return queue
-                .values()
+                .toSortedList()
                 .stream()
                 .filter(s -> s.getElement() == element)
                 .toList();
@@ -293,13 +387,76 @@ public abstract class Thought implements Element {
     }
 
     public void disconnect() {
+        model.unregister(this);
+
+        ThoughtMetrics tm = disconnectElements();
+        if(tm != null)
+            model.getMetrics().add(tm);
+    }
+
+    /**
+     * Releases the resources of this thought and disconnects its activations, without unregistering it from the
+     * model. Returns the metrics that have not been reported to the model yet, or null.
+     */
+    ThoughtMetrics disconnectElements() {
         if(model.getCurrentThought() == this)
             model.setCurrentThought(null);
 
+        ThoughtMetrics tm = null;
+        if(metrics != null && !metricsReported) {
+            tm = metrics;
+            metricsReported = true;
+        }
+
+        if(fieldStepPool != null) {
+            model.releaseFieldStepPool(fieldStepPool);
+            fieldStepPool = null;
+        }
+
         getActivations()
                 .forEach(act ->
                         act.disconnect()
                 );
+
+        preActivations.clear();
+
+        return tm;
+    }
+
+    /**
+     * Removes the given activations from this thought, e.g. because they fell out of the window of a streamed
+     * document. Their queued steps are dropped and their links and fields are disconnected from the remaining
+     * activations and the model, so that they can be garbage collected.
+     */
+    public void retire(Collection<? extends Activation> acts) {
+        if(acts.isEmpty())
+            return;
+
+        Set<Element> retired = Collections.newSetFromMap(new IdentityHashMap<>());
+        retired.addAll(acts);
+
+        queue.removeIf(s ->
+                isRetired(s.getElement(), retired)
+        );
+
+        for(Activation<?> act: acts) {
+            act.retire();
+
+            activationsById.remove(act.getId(), act);
+
+            PreActivation preActs = getPreActivation(act.getNeuronProvider());
+            if(preActs != null)
+                preActs.removeActivation(act);
+
+            linkingCandidateIndex.invalidate(act);
+        }
+    }
+
+    private static boolean isRetired(Element e, Set<Element> retired) {
+        if(e instanceof Link l)
+            return retired.contains(l.getInput()) || retired.contains(l.getOutput());
+
+        return retired.contains(e);
     }
 
     public void anneal() {
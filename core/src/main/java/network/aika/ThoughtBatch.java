@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.metrics.ThoughtMetrics;
+import network.aika.steps.Phase;
+import network.aika.steps.thought.AnnealStep;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static network.aika.steps.Phase.ANNEAL;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+
+/**
+ * Processes a number of thoughts of the same model together. This is meant for many short documents, like single
+ * words or search queries, where the fixed costs of processing each document on its own dominate.
+ *
+ * The following work is shared by the thoughts of a batch:
+ * <ul>
+ *     <li>All thoughts use the config of the batch.</li>
+ *     <li>The thoughts are moved through the phases in lockstep: Each thought processes its queued steps up to the
+ *     current phase, before the loop moves on to the next phase.</li>
+ *     <li>Annealing is driven by the batch: The next anneal value is computed once per anneal step and applied to
+ *     all thoughts, instead of scheduling an {@link AnnealStep} in every thought.</li>
+ *     <li>The thoughts are disconnected together, updating the registry and the metrics of the model once.</li>
+ * </ul>
+ *
+ * Every thought keeps its own queue, activations and pre-activations, so the documents remain isolated from each
+ * other. While a thought is being processed, it is set as the current thought of the model, so that steps of neuron
+ * and synapse fields end up in its queue.
+ *
+ * Batches are intended for inference. Since training modifies the shared neurons, training documents should still
+ * be processed one at a time.
+ *
+ * @author Lukas Molzberger
+ */
+public class ThoughtBatch<T extends Thought> {
+
+    private final Model model;
+
+    private final Config config;
+
+    private final List<T> thoughts = new ArrayList<>();
+
+    public ThoughtBatch(Model m, Config config) {
+        model = m;
+        this.config = config;
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Adds a newly created thought to the batch and assigns the config of the batch to it. The thought is detached
+     * from the current thread, so that the next thought of the batch can be created.
+     */
+    public T add(T t) {
+        assert t.getModel() == model;
+
+        if(model.getCurrentThought() == t)
+            model.setCurrentThought(null);
+
+        if(t.getConfig() != config)
+            t.setConfig(config);
+
+        thoughts.add(t);
+        return t;
+    }
+
+    public List<T> getThoughts() {
+        return Collections.unmodifiableList(thoughts);
+    }
+
+    public int size() {
+        return thoughts.size();
+    }
+
+    /**
+     * Runs the given task with the thought set as the current thought of the model, e.g. to add the tokens
+     * of a document.
+     */
+    public void run(T t, Runnable task) {
+        Thought previous = model.getCurrentThought();
+        model.setCurrentThought(t);
+        try {
+            task.run();
+        } finally {
+            model.setCurrentThought(previous);
+        }
+    }
+
+    public void process(int maxRound, Phase maxPhase) {
+        for(Phase p: Phase.values()) {
+            if(maxPhase != null && maxPhase.compareTo(p) < 0)
+                break;
+
+            for(T t: thoughts)
+                run(t, () ->
+                        t.process(maxRound, p)
+                );
+        }
+    }
+
+    /**
+     * Anneals all thoughts of the batch jointly. Like {@link Thought#anneal()}, the queued steps of each thought
+     * are processed before the anneal value is raised and after each anneal step. The thoughts must not have been
+     * annealed before, so that they share the same anneal value.
+     */
+    public void anneal() {
+        process(MAX_ROUND, ANNEAL);
+
+        double av = 0.0;
+        while (av < 1.0) {
+            double nextAnnealValue = Math.min(av + AnnealStep.getStepSize(config, av), 1.0);
+
+            for(T t: thoughts) {
+                assert t.getAnnealing().getValue() == av;
+
+                run(t, () -> {
+                    AnnealStep.setAnnealValue(t, nextAnnealValue);
+                    t.process(MAX_ROUND, ANNEAL);
+                });
+            }
+            av = nextAnnealValue;
+        }
+    }
+
+    /**
+     * Disconnects all thoughts of the batch. The thoughts are unregistered from the model at once and their
+     * metrics are accumulated locally, so that the metrics of the model are only updated once per batch.
+     */
+    public void disconnect() {
+        model.unregister(thoughts);
+
+        ThoughtMetrics batchMetrics = null;
+        int reported = 0;
+        for(T t: thoughts) {
+            ThoughtMetrics tm = t.disconnectElements();
+            if(tm == null)
+                continue;
+
+            if(batchMetrics == null)
+                batchMetrics = new ThoughtMetrics();
+            batchMetrics.add(tm);
+            reported++;
+        }
+
+        if(batchMetrics != null)
+            model.getMetrics().add(batchMetrics, reported);
+    }
+}
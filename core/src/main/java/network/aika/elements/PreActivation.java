@@ -17,9 +17,7 @@
 package network.aika.elements;
 
 
-import network.aika.Thought;
 import network.aika.elements.activations.Activation;
-import network.aika.elements.neurons.NeuronProvider;
 import network.aika.elements.synapses.Synapse;
 
 import java.util.*;
@@ -36,10 +34,6 @@ public class PreActivation<A extends Activation> {
             Comparator.comparingLong(s -> s.getPOutput().getId())
     );
 
-    public PreActivation(Thought t, NeuronProvider provider) {
-        t.register(provider, this);
-    }
-
     public SortedSet<A> getActivations() {
         return activations;
     }
@@ -48,6 +42,10 @@ public class PreActivation<A extends Activation> {
         activations.add(act);
     }
 
+    public void removeActivation(A act) {
+        activations.remove(act);
+    }
+
     public void addOutputSynapse(Synapse s) {
         outputSynapses.add(s);
     }
@@ -19,11 +19,11 @@ package network.aika.elements.activations;
 import network.aika.Model;
 import network.aika.Thought;
 import network.aika.elements.Element;
-import network.aika.elements.OutputKey;
 import network.aika.elements.Timestamp;
 import network.aika.elements.links.CategoryInputLink;
 import network.aika.elements.links.CategoryLink;
 import network.aika.elements.links.Link;
+import network.aika.elements.links.SortedLinkArray;
 import network.aika.ActivationFunction;
 import network.aika.elements.neurons.Neuron;
 import network.aika.elements.neurons.NeuronProvider;
@@ -33,6 +33,7 @@ import network.aika.fields.*;
 import network.aika.elements.synapses.Synapse;
 import network.aika.steps.activation.Counting;
 import network.aika.steps.activation.LinkingOut;
+import network.aika.visitor.LinkingCandidateIndex;
 import network.aika.visitor.binding.BindingVisitor;
 import network.aika.visitor.inhibitory.InhibitoryVisitor;
 import network.aika.visitor.pattern.PatternCategoryVisitor;
@@ -41,7 +42,6 @@ import network.aika.visitor.pattern.PatternVisitor;
 import java.util.*;
 import java.util.stream.Stream;
 
-import static java.lang.Integer.MAX_VALUE;
 import static network.aika.debugger.EventType.*;
 import static network.aika.elements.Timestamp.NOT_SET;
 import static network.aika.text.Range.joinTokenPosition;
@@ -80,8 +80,8 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
 
     protected FieldOutput negUpdateValue;
 
-    protected Map<NeuronProvider, Link> inputLinks;
-    protected NavigableMap<OutputKey, Link> outputLinks;
+    protected final SortedLinkArray inputLinks = new SortedLinkArray();
+    protected final SortedLinkArray outputLinks = new SortedLinkArray();
 
     public boolean instantiationIsQueued;
     protected boolean isNewInstance;
@@ -95,8 +95,6 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
         this.thought = t;
         setCreated(t.getCurrentTimestamp());
 
-        inputLinks = new TreeMap<>();
-        outputLinks = new TreeMap<>(OutputKey.COMPARATOR);
 
         initNet();
 
@@ -280,7 +278,7 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
     }
 
     protected void propagateRangeAndTokenPosition() {
-        outputLinks.values()
+        outputLinks
                 .forEach(Link::propagateRangeOrTokenPos);
     }
 
@@ -320,11 +318,11 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
     }
 
     public Link getInputLink(Neuron n) {
-        return inputLinks.get(n.getProvider());
+        return inputLinks.get(n.getId(), 0);
     }
 
     public Link getInputLink(Synapse s) {
-        return inputLinks.get(s.getPInput());
+        return inputLinks.get(s.getPInput().getId(), 0);
     }
 
     public <IL extends Link> Optional<IL> getInputLinkByType(Class<IL> linkType) {
@@ -346,43 +344,67 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
 
     public Stream<Link> getOutputLinks(Synapse s) {
         return outputLinks
-                .subMap(
-                        new OutputKey(s.getOutput().getProvider(), Integer.MIN_VALUE),
-                        true,
-                        new OutputKey(s.getOutput().getProvider(), MAX_VALUE),
-                        true
-                ).values()
-                .stream()
+                .stream(s.getPOutput().getId())
                 .filter(l -> l.getSynapse() == s);
     }
 
     public void linkInputs() {
         inputLinks
-                .values()
                 .forEach(Link::linkInput);
     }
 
     public void linkOutputs() {
         outputLinks
-                .values()
                 .forEach(Link::linkOutput);
     }
 
     public void linkOutputLink(Link l) {
         Link el = outputLinks.put(
-                new OutputKey(l.getOutput().getNeuronProvider(), l.getOutput().getId()),
+                l.getOutput().getNeuronProvider().getId(),
+                l.getOutput().getId(),
                 l
         );
 
         assert el == null;
+        onLinkAdded();
     }
 
     public void linkInputLink(Link l) {
         Link el = inputLinks.put(
-                l.getInput() != null ? l.getInput().getNeuronProvider() : l.getSynapse().getPInput(),
+                getInputKey(l),
+                0,
                 l
         );
         assert el == null;
+        onLinkAdded();
+    }
+
+    public void unlinkOutputLink(Link l) {
+        outputLinks.remove(
+                l.getOutput().getNeuronProvider().getId(),
+                l.getOutput().getId(),
+                l
+        );
+    }
+
+    public void unlinkInputLink(Link l) {
+        inputLinks.remove(
+                getInputKey(l),
+                0,
+                l
+        );
+    }
+
+    private static long getInputKey(Link l) {
+        return l.getInput() != null ?
+                l.getInput().getNeuronProvider().getId() :
+                l.getSynapse().getPInput().getId();
+    }
+
+    private void onLinkAdded() {
+        LinkingCandidateIndex index = getThought().getLinkingCandidateIndex();
+        if(index != null)
+            index.invalidate(this);
     }
 
     public void link() {
@@ -405,16 +427,40 @@ public abstract class Activation<N extends Neuron> implements Element, Comparabl
         );
     }
 
+    /**
+     * Retires all links of this activation and disconnects its fields. Afterwards, neither the neighbouring
+     * activations nor the neurons and synapses of the model hold a reference to this activation anymore.
+     */
+    public void retire() {
+        new ArrayList<>(inputLinks)
+                .forEach(Link::retire);
+        new ArrayList<>(outputLinks)
+                .forEach(Link::retire);
+
+        disconnect();
+    }
+
     public Stream<Link> getInputLinks() {
-        return new ArrayList<>(inputLinks.values())
+        return new ArrayList<>(inputLinks)
                 .stream();
     }
 
     public Stream<Link> getOutputLinks() {
-        return outputLinks.values()
+        return outputLinks
                 .stream();
     }
 
+    /**
+     * Returns the input links without copying them. The links must not be modified while iterating.
+     */
+    public Collection<Link> getInputLinksView() {
+        return inputLinks;
+    }
+
+    public Collection<Link> getOutputLinksView() {
+        return outputLinks;
+    }
+
     public Activation getTemplate() {
         CategoryActivation cAct = getCategoryActivation();
         return cAct != null ? cAct.getTemplate() : null;
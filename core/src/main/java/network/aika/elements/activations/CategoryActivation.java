@@ -54,7 +54,7 @@ public class CategoryActivation extends DisjunctiveActivation<CategoryNeuron> {
     }
 
     public Stream<Activation> getCategoryInputs() {
-        return inputLinks.values()
+        return inputLinks
                 .stream()
                 .map(Link::getInput);
     }
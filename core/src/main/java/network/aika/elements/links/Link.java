@@ -106,6 +106,25 @@ public abstract class Link<S extends Synapse, I extends Activation<?>, O extends
         weightedInput.disconnectAndUnlinkInputs(false);
     }
 
+    /**
+     * Removes this link from the field graph and from both of its activations, without propagating any updates.
+     * Used when one of the activations falls out of the window of a streamed document.
+     */
+    public void retire() {
+        disconnect();
+
+        if(inputValue != null)
+            inputValue.disconnectAndUnlinkInputs(false);
+
+        weightedInput.disconnectAndUnlinkOutputs(false);
+
+        if(input != null)
+            input.unlinkOutputLink(this);
+
+        if(output != null)
+            output.unlinkInputLink(this);
+    }
+
     public void instantiateTemplate(I iAct, O oAct) {
         if(iAct == null || oAct == null)
             return;
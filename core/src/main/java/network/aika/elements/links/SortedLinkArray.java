@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.elements.links;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+/**
+ * Compact storage for the input or output links of an activation. The links are kept in an array, sorted by
+ * the id of the neuron on the other side of the link and, for output links, by the id of the activation on
+ * the other side. The keys are stored as primitives in parallel arrays, so that neither lookups nor range
+ * queries by neuron allocate any key objects.
+ *
+ * Since most activations only have a handful of links, the arrays start empty and grow on demand. The order
+ * of the links is the same as the one of the tree maps that were used before.
+ *
+ * @author Lukas Molzberger
+ */
+public class SortedLinkArray extends AbstractList<Link> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private static final long[] NO_NEURON_IDS = new long[0];
+    private static final int[] NO_ACT_IDS = new int[0];
+    private static final Link[] NO_LINKS = new Link[0];
+
+    private long[] neuronIds = NO_NEURON_IDS;
+    private int[] actIds = NO_ACT_IDS;
+    private Link[] links = NO_LINKS;
+
+    private int size;
+
+    @Override
+    public Link get(int i) {
+        Objects.checkIndex(i, size);
+        return links[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public Link get(long neuronId, int actId) {
+        int i = indexOf(neuronId, actId);
+        return i >= 0 ? links[i] : null;
+    }
+
+    /**
+     * @return the link that was previously stored under the given key, or null
+     */
+    public Link put(long neuronId, int actId, Link l) {
+        int i = indexOf(neuronId, actId);
+        if(i >= 0) {
+            Link el = links[i];
+            links[i] = l;
+            return el;
+        }
+
+        i = -(i + 1);
+        if(size == links.length)
+            grow();
+
+        int n = size - i;
+        System.arraycopy(neuronIds, i, neuronIds, i + 1, n);
+        System.arraycopy(actIds, i, actIds, i + 1, n);
+        System.arraycopy(links, i, links, i + 1, n);
+
+        neuronIds[i] = neuronId;
+        actIds[i] = actId;
+        links[i] = l;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Removes the entry with the given key, but only if it still refers to the link l.
+     */
+    public boolean remove(long neuronId, int actId, Link l) {
+        int i = indexOf(neuronId, actId);
+        if(i < 0 || links[i] != l)
+            return false;
+
+        int n = size - i - 1;
+        System.arraycopy(neuronIds, i + 1, neuronIds, i, n);
+        System.arraycopy(actIds, i + 1, actIds, i, n);
+        System.arraycopy(links, i + 1, links, i, n);
+
+        links[--size] = null;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the links to the activations of the given neuron, in the order of the activation ids.
+     */
+    public Stream<Link> stream(long neuronId) {
+        int from = insertionPoint(neuronId, Integer.MIN_VALUE);
+        int to = from;
+        while(to < size && neuronIds[to] == neuronId)
+            to++;
+
+        return Arrays.stream(links, from, to);
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, links.length << 1);
+        neuronIds = Arrays.copyOf(neuronIds, capacity);
+        actIds = Arrays.copyOf(actIds, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private int indexOf(long neuronId, int actId) {
+        int i = insertionPoint(neuronId, actId);
+        if(i < size && neuronIds[i] == neuronId && actIds[i] == actId)
+            return i;
+
+        return -(i + 1);
+    }
+
+    /**
+     * @return the position of the first entry that is not smaller than the given key
+     */
+    private int insertionPoint(long neuronId, int actId) {
+        int lo = 0;
+        int hi = size;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Long.compare(neuronIds[mid], neuronId);
+            if(c == 0)
+                c = Integer.compare(actIds[mid], actId);
+
+            if(c < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
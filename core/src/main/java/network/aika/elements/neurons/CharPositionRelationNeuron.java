@@ -20,7 +20,7 @@ import network.aika.enums.direction.Direction;
 import network.aika.elements.activations.TokenActivation;
 import network.aika.text.Document;
 
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 
 /**
@@ -47,7 +47,7 @@ public class CharPositionRelationNeuron extends LatentRelationNeuron {
     }
 
     @Override
-    public Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
+    public void evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir, Consumer<TokenActivation> c) {
         Document doc = (Document) fromOriginAct.getThought();
 /*
         Range r = fromOriginAct.getRange();
@@ -61,6 +61,5 @@ public class CharPositionRelationNeuron extends LatentRelationNeuron {
                 .map(bs ->
                         createOrLookupLatentActivation(fromOriginAct, bs, s)
                 );*/
-        return null;
     }
 }
@@ -30,6 +30,9 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import static network.aika.utils.CompactEncoding.readVarInt;
+import static network.aika.utils.CompactEncoding.writeVarInt;
+
 /**
  *
  * @author Lukas Molzberger
@@ -93,13 +96,13 @@ public class InhibitoryNeuron extends DisjunctiveNeuron<InhibitoryActivation> {
     public void write(DataOutput out) throws IOException {
         super.write(out);
 
-        out.writeInt(identityReference.ordinal());
+        writeVarInt(out, identityReference.ordinal());
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws Exception {
         super.readFields(in, m);
 
-        identityReference = Scope.values()[in.readInt()];
+        identityReference = Scope.values()[readVarInt(in)];
     }
 }
@@ -24,7 +24,7 @@ import network.aika.elements.activations.LatentRelationActivation;
 import network.aika.elements.activations.TokenActivation;
 
 
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 import static network.aika.steps.Phase.TRAINING;
 import static network.aika.utils.Utils.TOLERANCE;
@@ -56,7 +56,10 @@ public abstract class LatentRelationNeuron extends BindingNeuron {
     }
 
 
-    public abstract Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir);
+    /**
+     * Hands all tokens that are related to the token fromOriginAct in the given direction to the consumer.
+     */
+    public abstract void evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir, Consumer<TokenActivation> c);
 
     @Override
     protected MultiInputField initBias() {
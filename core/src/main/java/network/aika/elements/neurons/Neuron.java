@@ -32,6 +32,7 @@ import network.aika.elements.synapses.Synapse;
 import network.aika.visitor.operator.ActLinkingOperator;
 import network.aika.visitor.operator.LinkLinkingOperator;
 import network.aika.steps.activation.Save;
+import network.aika.utils.LegacyDataInput;
 import network.aika.utils.Writable;
 import network.aika.visitor.operator.LinkingOperator;
 import org.slf4j.Logger;
@@ -40,12 +41,11 @@ import org.slf4j.LoggerFactory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static network.aika.enums.direction.Direction.INPUT;
 import static network.aika.enums.direction.Direction.OUTPUT;
 import static network.aika.elements.synapses.Synapse.getLatentLinkingPreNet;
@@ -62,8 +62,18 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
 
     protected static final Logger log = LoggerFactory.getLogger(Neuron.class);
 
+    /**
+     * Version of the serialized neuron format. Records of the original format started with the
+     * class name as UTF string and therefore with a zero byte.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int LEGACY_FORMAT_VERSION = 0;
+
     volatile long retrievalCount = 0;
 
+    private volatile boolean referenced;
+
     private volatile boolean modified;
 
     private NeuronProvider provider;
@@ -78,7 +88,6 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
 
     protected Neuron<?> template;
 
-    private final WeakHashMap<Long, WeakReference<PreActivation<A>>> activations = new WeakHashMap<>();
 
     private boolean callActivationCheckCallback;
 
@@ -119,40 +128,20 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
     }
 
     public PreActivation<A> getOrCreatePreActivation(Thought t) {
-        PreActivation<A> npd;
-        synchronized (activations) {
-            WeakReference<PreActivation<A>> weakRef = activations
-                    .computeIfAbsent(
-                            t.getId(),
-                            n -> new WeakReference<>(
-                                    new PreActivation<>(t, provider)
-                            )
-                    );
-
-            npd = weakRef.get();
-        }
-        return npd;
+        return t.getOrCreatePreActivation(provider);
     }
 
     public PreActivation<A> getPreActivation(Thought t) {
-        PreActivation<A> npd = null;
-        synchronized (activations) {
-            WeakReference<PreActivation<A>> weakRef = activations
-                    .get(t.getId());
-
-            if(weakRef != null)
-                npd = weakRef.get();
-        }
-        return npd;
+        return t.getPreActivation(provider);
     }
 
+    /**
+     * Returns the pre-activations of this neuron within all thoughts of the model that have not been disconnected yet.
+     */
     public Stream<PreActivation<A>> getPreActivations() {
-        synchronized (activations) {
-            return activations.values()
-                    .stream()
-                    .map(Reference::get)
-                    .filter(Objects::nonNull);
-        }
+        return getModel().getActiveThoughts()
+                .map(t -> t.<A>getPreActivation(provider))
+                .filter(Objects::nonNull);
     }
 
     public abstract void startVisitor(LinkingOperator c, Activation act, Synapse syn);
@@ -195,11 +184,7 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
         if(t == null)
             return Collections.emptySortedSet();
 
-        WeakReference<PreActivation<A>> weakRef = activations.get(t.getId());
-        if(weakRef == null)
-            return Collections.emptyNavigableSet();
-
-        PreActivation<A> acts = weakRef.get();
+        PreActivation<A> acts = getPreActivation(t);
         if(acts == null)
             return Collections.emptyNavigableSet();
 
@@ -305,11 +290,7 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
     }
 
     public Stream<? extends Synapse> getOutputSynapsesAsStream(Thought t) {
-        WeakReference<PreActivation<A>> wRefNpd = activations.get(t.getId());
-        if(wRefNpd == null)
-            return getOutputSynapsesAsStream();
-
-        PreActivation<A> npd = wRefNpd.get();
+        PreActivation<A> npd = getPreActivation(t);
         if(npd == null)
             return getOutputSynapsesAsStream();
 
@@ -320,23 +301,11 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
     }
 
     public Synapse getOutputSynapse(NeuronProvider n) {
-        provider.lock.acquireReadLock();
-        Synapse syn = getOutputSynapsesAsStream()
-                .filter(s -> s.getPOutput().getId() == n.getId())
-                .findFirst()
-                .orElse(null);
-        provider.lock.releaseReadLock();
-        return syn;
+        return provider.getOutputSynapse(n.getId());
     }
 
     public Synapse getInputSynapse(NeuronProvider n) {
-        provider.lock.acquireReadLock();
-        Synapse syn = selectInputSynapse(s ->
-                s.getPInput().getId() == n.getId()
-        );
-
-        provider.lock.releaseReadLock();
-        return syn;
+        return provider.getInputSynapse(n.getId());
     }
 
     public <IS extends Synapse> IS getInputSynapseByType(Class<IS> synapseType) {
@@ -407,6 +376,40 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
         return retrievalCount;
     }
 
+    public void updateRetrievalCount(Model m) {
+        m.incrementRetrievalCounter();
+        retrievalCount = m.getCurrentRetrievalCount();
+    }
+
+    /**
+     * The flag is written unconditionally, since {@link NeuronProvider#suspendIfUnused} relies
+     * on the write being visible before the caller reads the neuron field of the provider again.
+     */
+    public void setReferenced() {
+        referenced = true;
+    }
+
+    public boolean isReferenced() {
+        return referenced;
+    }
+
+    public boolean resetReferenced() {
+        if(!referenced)
+            return false;
+
+        referenced = false;
+        return true;
+    }
+
+    /**
+     * @return true if the neuron has pre-activations in any of the active thoughts
+     */
+    public boolean isInUse() {
+        return getPreActivations()
+                .findAny()
+                .isPresent();
+    }
+
 
     public void setModified() {
         if (!modified)
@@ -449,13 +452,13 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
     }
 
     public void reactivate(Model m) {
-        m.incrementRetrievalCounter();
-        retrievalCount = m.getCurrentRetrievalCount();
+        updateRetrievalCount(m);
     }
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeUTF(getClass().getCanonicalName());
+        out.writeByte(FORMAT_VERSION);
+        getModel().getTypeRegistry().writeType(out, this);
 
         out.writeBoolean(label != null);
         if(label != null)
@@ -487,13 +490,33 @@ public abstract class Neuron<A extends Activation> implements Element, Writable
     }
 
     public static Neuron read(DataInput in, Model m) throws Exception {
-        String neuronClazz = in.readUTF();
-        Neuron n = (Neuron) m.modelClass(neuronClazz);
+        int version = in.readUnsignedByte();
+        if(version == LEGACY_FORMAT_VERSION)
+            return readLegacy(in, m);
+
+        if(version != FORMAT_VERSION)
+            throw new IOException("Unsupported neuron format version: " + version);
+
+        Neuron n = (Neuron) m.getTypeRegistry().readInstance(in);
 
         n.readFields(in, m);
         return n;
     }
 
+    /**
+     * Reads a record of the original format. The zero byte that has already been consumed is the high byte of
+     * the length of the class name.
+     */
+    private static Neuron readLegacy(DataInput in, Model m) throws Exception {
+        byte[] clazzName = new byte[in.readUnsignedByte()];
+        in.readFully(clazzName);
+
+        Neuron n = (Neuron) m.getTypeRegistry().newInstance(new String(clazzName, UTF_8));
+
+        n.readFields(new LegacyDataInput(in), m);
+        return n;
+    }
+
     @Override
     public void readFields(DataInput in, Model m) throws Exception {
         if(in.readBoolean())
@@ -20,10 +20,12 @@ import network.aika.Model;
 import network.aika.elements.synapses.Synapse;
 import network.aika.exceptions.NeuronSerializationException;
 import network.aika.suspension.SuspensionMode;
+import network.aika.utils.ByteBufferInputStream;
+import network.aika.utils.LongObjectMap;
 import network.aika.utils.ReadWriteLock;
 
 import java.io.*;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
 import java.util.stream.Stream;
 
 /**
@@ -37,42 +39,78 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
     public static final NeuronProvider MIN_NEURON = new NeuronProvider(Long.MIN_VALUE);
     public static final NeuronProvider MAX_NEURON = new NeuronProvider(Long.MAX_VALUE);
 
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Per thread serialization buffer, which is reused across saves instead of being regrown for every neuron.
+     */
+    private static final ThreadLocal<ByteArrayOutputStream> SERIALIZATION_BUFFER =
+            ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
     private Model model;
     private final Long id;
 
     private volatile Neuron neuron;
 
-    HashMap<Long, Synapse> inputSynapses = new HashMap<>();
-    HashMap<Long, Synapse> outputSynapses = new HashMap<>();
+    /**
+     * Keyed by the id of the input neuron
+     */
+    final LongObjectMap<Synapse> inputSynapses = new LongObjectMap<>();
+
+    /**
+     * Keyed by the id of the output neuron
+     */
+    final LongObjectMap<Synapse> outputSynapses = new LongObjectMap<>();
 
     protected final ReadWriteLock lock = new ReadWriteLock();
 
     private boolean permanent;
     private boolean isRegistered;
 
+    private boolean cached;
+    private int serializedSize;
+
     public NeuronProvider(long id) {
         this.id = id;
     }
 
+    /**
+     * Creates a provider without registering it in the model. Use {@link Model#lookupNeuronProvider(Long)}
+     * to obtain the registered provider of an existing neuron.
+     */
     public NeuronProvider(Model model, long id) {
         this(id);
         assert model != null;
         this.model = model;
-        model.register(this);
     }
 
     public NeuronProvider(Model model, Neuron n) {
         this(model, model.createNeuronId());
         assert model != null && n != null;
+        model.register(this);
 
         this.neuron = n;
+        model.addResidentNeuron(this);
     }
 
+    /**
+     * Marks the neuron as referenced before reading the field again. If the neuron has been suspended
+     * concurrently in between, it is reactivated, so that the caller never obtains a suspended instance.
+     */
     public <N extends Neuron> N getNeuron() {
-        if (neuron == null)
-            reactivate();
+        Neuron n = neuron;
+        while(true) {
+            if (n == null)
+                n = reactivate();
+
+            n.setReferenced();
 
-        return (N) neuron;
+            Neuron current = neuron;
+            if(current == n)
+                return (N) n;
+
+            n = current;
+        }
     }
 
     public void setNeuron(Neuron<?> n) {
@@ -100,11 +138,19 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
     }
 
     public Stream<Synapse> getInputSynapses() {
-        return inputSynapses.values().stream();
+        return inputSynapses.stream();
     }
 
     public Stream<Synapse> getOutputSynapses() {
-        return outputSynapses.values().stream();
+        return outputSynapses.stream();
+    }
+
+    public Synapse getInputSynapse(long inputId) {
+        return inputSynapses.get(inputId);
+    }
+
+    public Synapse getOutputSynapse(long outputId) {
+        return outputSynapses.get(outputId);
     }
 
     public boolean isPermanent() {
@@ -114,38 +160,90 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
     public void setPermanent(boolean permanent) {
         this.permanent = permanent;
 
-        if(permanent)
+        if(permanent) {
             checkRegister();
-        else
+        } else {
             checkUnregister();
+            if(neuron != null)
+                model.addResidentNeuron(this);
+        }
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * @return the size of the serialized neuron when it was last saved or reactivated
+     */
+    public int getSerializedSize() {
+        return serializedSize;
     }
 
     public synchronized void suspend(SuspensionMode sm) {
-        if(neuron == null) return;
+        Neuron n = neuron;
+        if(n == null) return;
         assert model.getSuspensionCallback() != null;
 
         if(permanent) {
             if(sm == SuspensionMode.SAVE)
-                save();
+                save(n);
             return;
         }
 
-        if(sm == SuspensionMode.SAVE)
-            save();
+        neuron = null;
+        suspend(n, sm);
+    }
+
+    /**
+     * Suspends the neuron unless it has been referenced or has pre-activations. The field is cleared before the
+     * neuron is checked: A concurrent {@link #getNeuron()} either sees the cleared field and waits on the monitor
+     * of this provider to reactivate the neuron, or it has marked the neuron as referenced before the check.
+     *
+     * @return false if the neuron is still in use and has been kept resident
+     */
+    public synchronized boolean suspendIfUnused(SuspensionMode sm) {
+        Neuron n = neuron;
+        if(n == null || permanent)
+            return true;
+        assert model.getSuspensionCallback() != null;
 
-        neuron.suspend();
         neuron = null;
+        if(n.isReferenced() || n.isInUse()) {
+            neuron = n;
+            return false;
+        }
+
+        suspend(n, sm);
+        return true;
+    }
+
+    private void suspend(Neuron n, SuspensionMode sm) {
+        if(sm == SuspensionMode.SAVE)
+            save(n);
+
+        n.suspend();
 
         checkUnregister();
     }
 
     public void save() {
+        save(neuron);
+    }
+
+    private void save(Neuron neuron) {
         if(!neuron.isModified())
             return;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteArrayOutputStream baos = SERIALIZATION_BUFFER.get();
+        baos.reset();
         try (DataOutputStream dos = new DataOutputStream(baos)) {
             neuron.write(dos);
+            serializedSize = baos.size();
 
             model.getSuspensionCallback().store(
                     id,
@@ -155,20 +253,57 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
             );
         } catch (IOException e) {
             throw new NeuronSerializationException(id, e);
+        } finally {
+            if(baos.size() > MAX_POOLED_BUFFER_SIZE)
+                SERIALIZATION_BUFFER.remove();
         }
         neuron.resetModified();
     }
 
-    private void reactivate() {
+    /**
+     * Reactivates the neuron if it is suspended, without marking it as referenced.
+     *
+     * @return true if the neuron had to be loaded
+     */
+    public boolean preload() {
+        synchronized (this) {
+            if(neuron != null)
+                return false;
+
+            load();
+        }
+        model.addResidentNeuron(this);
+        return true;
+    }
+
+    /**
+     * Returns the neuron that has been installed under the monitor of this provider. The field itself might
+     * already have been cleared again by an eviction of the neuron cache on another thread.
+     */
+    private Neuron reactivate() {
+        Neuron n;
+        synchronized (this) {
+            n = neuron;
+            if(n != null)
+                return n;
+
+            n = load();
+        }
+        model.addResidentNeuron(this);
+        return n;
+    }
+
+    private Neuron load() {
         assert model.getSuspensionCallback() != null;
 
         Neuron n;
-        try (DataInputStream dis = new DataInputStream(
-                new ByteArrayInputStream(
-                        model.getSuspensionCallback().retrieve(id)
-                )
-        )) {
-            n = Neuron.read(dis, model);
+        try {
+            ByteBuffer data = model.getSuspensionCallback().retrieveBuffer(id);
+            serializedSize = data.remaining();
+
+            try (DataInputStream dis = new DataInputStream(new ByteBufferInputStream(data))) {
+                n = Neuron.read(dis, model);
+            }
         } catch (Exception e) {
             throw new NeuronSerializationException(id, e);
         }
@@ -176,46 +311,59 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         n.reactivate(model);
         neuron = n;
         checkRegister();
+        return n;
     }
 
     public void addInputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        inputSynapses.put(s.getPInput().getId(), s);
-        if(neuron != null)
-            neuron.addInputSynapse(s);
+        try {
+            inputSynapses.put(s.getPInput().getId(), s);
+            if(neuron != null)
+                neuron.addInputSynapse(s);
 
-        checkRegister();
-        lock.releaseWriteLock();
+            checkRegister();
+        } finally {
+            lock.releaseWriteLock();
+        }
     }
 
     public void removeInputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        inputSynapses.remove(s.getPInput().getId());
-        if(neuron != null)
-            neuron.removeInputSynapse(s);
+        try {
+            inputSynapses.remove(s.getPInput().getId());
+            if(neuron != null)
+                neuron.removeInputSynapse(s);
 
-        checkUnregister();
-        lock.releaseWriteLock();
+            checkUnregister();
+        } finally {
+            lock.releaseWriteLock();
+        }
     }
 
     public void addOutputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        outputSynapses.put(s.getPOutput().getId(), s);
-        if(neuron != null)
-            neuron.addOutputSynapse(s);
+        try {
+            outputSynapses.put(s.getPOutput().getId(), s);
+            if(neuron != null)
+                neuron.addOutputSynapse(s);
 
-        checkRegister();
-        lock.releaseWriteLock();
+            checkRegister();
+        } finally {
+            lock.releaseWriteLock();
+        }
     }
 
     public void removeOutputSynapse(Synapse s) {
         lock.acquireWriteLock();
-        outputSynapses.remove(s.getPOutput().getId());
-        if(neuron != null)
-            neuron.removeOutputSynapse(s);
+        try {
+            outputSynapses.remove(s.getPOutput().getId());
+            if(neuron != null)
+                neuron.removeOutputSynapse(s);
 
-        checkUnregister();
-        lock.releaseWriteLock();
+            checkUnregister();
+        } finally {
+            lock.releaseWriteLock();
+        }
     }
 
     private void checkRegister() {
@@ -34,6 +34,8 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import static network.aika.enums.sign.Sign.POS;
+import static network.aika.utils.CompactEncoding.readDouble;
+import static network.aika.utils.CompactEncoding.writeDouble;
 
 /**
  *
@@ -146,7 +148,7 @@ public class PatternNeuron extends ConjunctiveNeuron<PatternActivation> {
     public void write(DataOutput out) throws IOException {
         super.write(out);
 
-        out.writeDouble(frequency);
+        writeDouble(out, frequency);
         sampleSpace.write(out);
     }
 
@@ -154,7 +156,7 @@ public class PatternNeuron extends ConjunctiveNeuron<PatternActivation> {
     public void readFields(DataInput in, Model m) throws Exception {
         super.readFields(in, m);
 
-        frequency = in.readDouble();
+        frequency = readDouble(in);
         sampleSpace = SampleSpace.read(in, m);
     }
 }
@@ -21,7 +21,7 @@ import network.aika.enums.direction.Direction;
 import network.aika.elements.activations.TokenActivation;
 import network.aika.text.Document;
 
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 
 /**
@@ -52,10 +52,10 @@ public class TokenPositionRelationNeuron extends LatentRelationNeuron {
     }
 
     @Override
-    public Stream<TokenActivation> evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir) {
+    public void evaluateLatentRelation(TokenActivation fromOriginAct, Direction dir, Consumer<TokenActivation> c) {
         Document doc = (Document) fromOriginAct.getThought();
 
-        return doc.getRelatedTokensByTokenPosition(fromOriginAct, getRelFrom(dir), getRelTo(dir));
+        doc.getRelatedTokensByTokenPosition(fromOriginAct, getRelFrom(dir), getRelTo(dir), c);
     }
 
     private int getRelFrom(Direction dir) {
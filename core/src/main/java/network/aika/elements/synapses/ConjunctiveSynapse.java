@@ -39,6 +39,8 @@ import static network.aika.enums.direction.Direction.INPUT;
 import static network.aika.enums.direction.Direction.OUTPUT;
 import static network.aika.fields.FieldLink.linkAndConnect;
 import static network.aika.steps.Phase.TRAINING;
+import static network.aika.utils.CompactEncoding.readDouble;
+import static network.aika.utils.CompactEncoding.writeDouble;
 import static network.aika.utils.Utils.TOLERANCE;
 
 
@@ -176,7 +178,7 @@ public abstract class ConjunctiveSynapse<S extends ConjunctiveSynapse, I extends
     public void write(DataOutput out) throws IOException {
         super.write(out);
 
-        out.writeDouble(sumOfLowerWeights);
+        writeDouble(out, sumOfLowerWeights);
         out.writeBoolean(currentStoredAt == OUTPUT);
         out.writeBoolean(optional);
     }
@@ -185,7 +187,7 @@ public abstract class ConjunctiveSynapse<S extends ConjunctiveSynapse, I extends
     public void readFields(DataInput in, Model m) throws IOException {
         super.readFields(in, m);
 
-        sumOfLowerWeights = in.readDouble();
+        sumOfLowerWeights = readDouble(in);
         currentStoredAt = in.readBoolean() ? OUTPUT : INPUT;
         optional = in.readBoolean();
 
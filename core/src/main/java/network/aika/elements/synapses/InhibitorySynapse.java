@@ -28,6 +28,9 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import static network.aika.utils.CompactEncoding.readVarInt;
+import static network.aika.utils.CompactEncoding.writeVarInt;
+
 /**
  *
  * @author Lukas Molzberger
@@ -74,7 +77,7 @@ public class InhibitorySynapse extends DisjunctiveSynapse<
 
         out.writeBoolean(type != null);
         if(type != null)
-            out.writeInt(type.ordinal());
+            writeVarInt(out, type.ordinal());
     }
 
     @Override
@@ -82,6 +85,6 @@ public class InhibitorySynapse extends DisjunctiveSynapse<
         super.readFields(in, m);
 
         if(in.readBoolean())
-            type = Scope.values()[in.readInt()];
+            type = Scope.values()[readVarInt(in)];
     }
 }
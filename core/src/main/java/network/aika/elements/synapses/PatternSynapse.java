@@ -39,6 +39,8 @@ import java.util.stream.Collectors;
 import static network.aika.fields.Fields.isTrue;
 import static network.aika.enums.sign.Sign.NEG;
 import static network.aika.enums.sign.Sign.POS;
+import static network.aika.utils.CompactEncoding.readDouble;
+import static network.aika.utils.CompactEncoding.writeDouble;
 
 
 /**
@@ -203,9 +205,9 @@ public class PatternSynapse extends ConjunctiveSynapse<
     public void write(DataOutput out) throws IOException {
         super.write(out);
 
-        out.writeDouble(frequencyIPosOPos);
-        out.writeDouble(frequencyIPosONeg);
-        out.writeDouble(frequencyINegOPos);
+        writeDouble(out, frequencyIPosOPos);
+        writeDouble(out, frequencyIPosONeg);
+        writeDouble(out, frequencyINegOPos);
 
         sampleSpace.write(out);
     }
@@ -214,9 +216,9 @@ public class PatternSynapse extends ConjunctiveSynapse<
     public void readFields(DataInput in, Model m) throws IOException {
         super.readFields(in, m);
 
-        frequencyIPosOPos = in.readDouble();
-        frequencyIPosONeg = in.readDouble();
-        frequencyINegOPos = in.readDouble();
+        frequencyIPosOPos = readDouble(in);
+        frequencyIPosONeg = readDouble(in);
+        frequencyINegOPos = readDouble(in);
 
         sampleSpace = SampleSpace.read(in, m);
     }
@@ -44,6 +44,8 @@ import static network.aika.enums.direction.Direction.INPUT;
 import static network.aika.elements.Timestamp.MAX;
 import static network.aika.elements.Timestamp.MIN;
 import static network.aika.steps.Phase.TRAINING;
+import static network.aika.utils.CompactEncoding.readVarLong;
+import static network.aika.utils.CompactEncoding.writeVarLong;
 import static network.aika.utils.Utils.TOLERANCE;
 
 /**
@@ -338,26 +340,24 @@ public abstract class Synapse<S extends Synapse, I extends Neuron, O extends Neu
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeUTF(getClass().getName());
+        getModel().getTypeRegistry().writeType(out, this);
 
-        out.writeLong(input.getId());
-        out.writeLong(output.getId());
+        writeVarLong(out, input.getId());
+        writeVarLong(out, output.getId());
 
         weight.write(out);
     }
 
     public static Synapse read(DataInput in, Model m) throws IOException {
-        String synClazz = in.readUTF();
-
-        Synapse s = (Synapse) m.modelClass(synClazz);
+        Synapse s = (Synapse) m.getTypeRegistry().readInstance(in);
         s.readFields(in, m);
         return s;
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
-        input = m.lookupNeuronProvider(in.readLong());
-        output = m.lookupNeuronProvider(in.readLong());
+        input = m.lookupNeuronProvider(readVarLong(in));
+        output = m.lookupNeuronProvider(readVarLong(in));
 
         weight.readFields(in, m);
     }
@@ -23,9 +23,12 @@ import network.aika.utils.Writable;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 
+import static network.aika.utils.CompactEncoding.readDouble;
+import static network.aika.utils.CompactEncoding.writeWeight;
 import static network.aika.utils.Utils.doubleToString;
 
 
@@ -44,7 +47,13 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
     private boolean withinUpdate;
     private double updatedValue;
 
-    private Collection<AbstractFieldLink> receivers;
+    private static final AbstractFieldLink[] NO_RECEIVERS = new AbstractFieldLink[0];
+
+    /**
+     * Copy-on-write array of the outgoing links. Links may be added or removed while an update is being
+     * propagated, so propagation iterates over the array that was current when it started.
+     */
+    private AbstractFieldLink[] receivers;
 
     protected Double tolerance;
 
@@ -57,7 +66,7 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
     }
 
     protected void initIO() {
-        receivers = new ArrayList<>();
+        receivers = NO_RECEIVERS;
     }
 
     public Field setInitialValue(double initialValue) {
@@ -116,17 +125,27 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
     }
 
     public Collection<AbstractFieldLink> getReceivers() {
-        return receivers;
+        return Collections.unmodifiableList(Arrays.asList(receivers));
     }
 
     @Override
     public void addOutput(AbstractFieldLink fl) {
-        this.receivers.add(fl);
+        AbstractFieldLink[] recs = Arrays.copyOf(receivers, receivers.length + 1);
+        recs[receivers.length] = fl;
+        receivers = recs;
     }
 
     @Override
     public void removeOutput(AbstractFieldLink fl) {
-        this.receivers.remove(fl);
+        for(int i = 0; i < receivers.length; i++) {
+            if(fl.equals(receivers[i])) {
+                AbstractFieldLink[] recs = new AbstractFieldLink[receivers.length - 1];
+                System.arraycopy(receivers, 0, recs, 0, i);
+                System.arraycopy(receivers, i + 1, recs, i, recs.length - i);
+                receivers = recs;
+                return;
+            }
+        }
     }
 
     public void receiveUpdate(AbstractFieldLink fl, boolean nextRound, double u) {
@@ -160,7 +179,7 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
     }
 
     protected void propagateUpdate(boolean nextRound, double update) {
-        AbstractFieldLink[] recs = receivers.toArray(new AbstractFieldLink[0]);
+        AbstractFieldLink[] recs = receivers;
 
         for(int i = 0; i < recs.length; i++) {
             recs[i].receiveUpdate(nextRound, update);
@@ -169,12 +188,12 @@ public abstract class Field implements FieldInput, FieldOutput, Writable {
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeDouble(value);
+        writeWeight(out, value);
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
-        value = in.readDouble();
+        value = readDouble(in);
     }
 
     @Override
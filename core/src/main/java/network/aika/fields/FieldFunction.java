@@ -16,22 +16,22 @@
  */
 package network.aika.fields;
 
-import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * @author Lukas Molzberger
  */
 public class FieldFunction extends AbstractFunction {
 
-    private DoubleFunction<Double> function;
+    private DoubleUnaryOperator function;
 
-    public FieldFunction(FieldObject ref, String label, Double tolerance, DoubleFunction<Double> f) {
+    public FieldFunction(FieldObject ref, String label, Double tolerance, DoubleUnaryOperator f) {
         super(ref, label, tolerance);
         this.function = f;
     }
 
     @Override
     protected double computeUpdate(AbstractFieldLink fl, double u) {
-        return function.apply(fl.getUpdatedInputValue()) - value;
+        return function.applyAsDouble(fl.getUpdatedInputValue()) - value;
     }
 }
@@ -17,7 +17,7 @@
 package network.aika.fields;
 
 import java.util.function.DoubleBinaryOperator;
-import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 
 import static network.aika.fields.FieldLink.*;
 
@@ -66,7 +66,7 @@ public class Fields {
         return mul;
     }
 
-    public static FieldFunction func(FieldObject ref, String label, Double tolerance, FieldOutput in, DoubleFunction<Double> f) {
+    public static FieldFunction func(FieldObject ref, String label, Double tolerance, FieldOutput in, DoubleUnaryOperator f) {
         if(in == null)
             return null;
 
@@ -77,7 +77,7 @@ public class Fields {
         return func;
     }
 
-    public static FieldFunction func(FieldObject ref, String label, Double tolerance, FieldOutput in, DoubleFunction<Double> f, FieldInput... out) {
+    public static FieldFunction func(FieldObject ref, String label, Double tolerance, FieldOutput in, DoubleUnaryOperator f, FieldInput... out) {
         if(in == null)
             return null;
 
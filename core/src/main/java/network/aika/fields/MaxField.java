@@ -16,8 +16,6 @@
  */
 package network.aika.fields;
 
-import java.util.Comparator;
-
 /**
  * @author Lukas Molzberger
  */
@@ -47,15 +45,19 @@ public class MaxField extends MultiInputField {
             return fl.getUpdatedInputValue() - value;
         }
 
-        selectedInput = getInputs().stream()
-                .max(getComparator(fl))
-                .orElse(null);
-
-        return getInput(selectedInput, fl) - value;
-    }
+        selectedInput = null;
+        double maxValue = 0.0;
+        for(FieldLink in: getInputs()) {
+            double v = getInput(in, fl);
+            if(selectedInput == null || v > maxValue) {
+                selectedInput = in;
+                maxValue = v;
+            }
+        }
 
-    private Comparator<FieldLink> getComparator(AbstractFieldLink fl) {
-        return Comparator.comparingDouble(in -> getInput(in, fl));
+        return selectedInput != null ?
+                maxValue - value :
+                -value;
     }
 
     private double getInput(AbstractFieldLink fl, AbstractFieldLink updateFL) {
@@ -82,8 +82,12 @@ public class QueueSumField extends MultiInputField implements QueueField {
     }
 
     private FieldStep getOrCreateStep(int r) {
-        if(step == null || step.getRound() < r)
-            step = new FieldStep<>((Element) getReference(), phase, r, this);
+        if(step == null || step.getRound() < r) {
+            Thought t = getReference().getThought();
+            step = t != null ?
+                    t.createFieldStep((Element) getReference(), phase, r, this) :
+                    new FieldStep<>((Element) getReference(), phase, r, this);
+        }
 
         return step;
     }
@@ -93,11 +97,14 @@ public class QueueSumField extends MultiInputField implements QueueField {
         step = null;
 
         updateObservers();
+
+        Thought t = getReference().getThought();
+        if(t != null)
+            t.releaseFieldStep(s);
     }
 
     private void updateObservers() {
-        observers.forEach(o ->
-                o.receiveUpdate(value)
-        );
+        for(int i = 0; i < observers.size(); i++)
+            observers.get(i).receiveUpdate(value);
     }
 }
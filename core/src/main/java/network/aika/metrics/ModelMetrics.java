@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import network.aika.steps.Phase;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Accumulates the {@link ThoughtMetrics} of all thoughts that have been disconnected from a model.
+ * Thoughts may be processed concurrently, so the accumulated metrics are guarded by this object.
+ *
+ * @author Lukas Molzberger
+ */
+public class ModelMetrics implements ModelMetricsMXBean {
+
+    public static final String JMX_DOMAIN = "network.aika";
+
+    private ThoughtMetrics total = new ThoughtMetrics();
+    private long thoughtCount;
+
+    private ObjectName objectName;
+
+    public void add(ThoughtMetrics tm) {
+        add(tm, 1);
+    }
+
+    /**
+     * Adds the metrics of a number of thoughts, which have already been accumulated by the caller.
+     */
+    public synchronized void add(ThoughtMetrics tm, int thoughts) {
+        total.add(tm);
+        thoughtCount += thoughts;
+    }
+
+    /**
+     * Returns a copy of the accumulated metrics.
+     */
+    public synchronized ThoughtMetrics getTotal() {
+        ThoughtMetrics tm = new ThoughtMetrics();
+        tm.add(total);
+        return tm;
+    }
+
+    @Override
+    public synchronized void reset() {
+        total = new ThoughtMetrics();
+        thoughtCount = 0;
+    }
+
+    public synchronized void registerMBean(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName(JMX_DOMAIN + ":type=ModelMetrics,name=" + ObjectName.quote(name));
+        server.registerMBean(this, objectName);
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if(objectName == null)
+            return;
+
+        ManagementFactory.getPlatformMBeanServer()
+                .unregisterMBean(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public synchronized long getThoughtCount() {
+        return thoughtCount;
+    }
+
+    @Override
+    public synchronized long getStepCount() {
+        return total.getStepCount();
+    }
+
+    @Override
+    public synchronized double getTotalStepTimeMillis() {
+        return toMillis(total.getTotalStepNanos());
+    }
+
+    @Override
+    public synchronized int getQueueHighWaterMark() {
+        return total.getQueueHighWaterMark();
+    }
+
+    @Override
+    public synchronized long getActivationsCreated() {
+        return total.getActivationsCreated();
+    }
+
+    @Override
+    public synchronized long getLinksCreated() {
+        return total.getLinksCreated();
+    }
+
+    @Override
+    public synchronized long getVisitorInvocations() {
+        return total.getVisitorInvocations();
+    }
+
+    @Override
+    public synchronized Map<String, Long> getCountPerPhase() {
+        return perPhaseLong(StepTimings::getCount);
+    }
+
+    @Override
+    public synchronized Map<String, Double> getTotalTimeMillisPerPhase() {
+        return perPhase(st -> toMillis(st.getTotalNanos()));
+    }
+
+    @Override
+    public synchronized Map<String, Double> getP50TimeMicrosPerPhase() {
+        return perPhase(st -> toMicros(st.getPercentileNanos(0.5)));
+    }
+
+    @Override
+    public synchronized Map<String, Double> getP99TimeMicrosPerPhase() {
+        return perPhase(st -> toMicros(st.getPercentileNanos(0.99)));
+    }
+
+    @Override
+    public synchronized Map<String, Long> getCountPerStepType() {
+        Map<String, Long> result = new TreeMap<>();
+        total.getStepTimings().forEach((c, st) ->
+                result.put(c.getSimpleName(), st.getCount())
+        );
+        return result;
+    }
+
+    @Override
+    public synchronized Map<String, Double> getTotalTimeMillisPerStepType() {
+        return perStepType(st -> toMillis(st.getTotalNanos()));
+    }
+
+    @Override
+    public synchronized Map<String, Double> getP99TimeMicrosPerStepType() {
+        return perStepType(st -> toMicros(st.getPercentileNanos(0.99)));
+    }
+
+    private Map<String, Long> perPhaseLong(ToLongFunction<StepTimings> f) {
+        Map<String, Long> result = new TreeMap<>();
+        for(Phase p: Phase.values())
+            result.put(p.name(), f.applyAsLong(total.getPhaseTimings(p)));
+
+        return result;
+    }
+
+    private Map<String, Double> perPhase(ToDoubleFunction<StepTimings> f) {
+        Map<String, Double> result = new TreeMap<>();
+        for(Phase p: Phase.values())
+            result.put(p.name(), f.applyAsDouble(total.getPhaseTimings(p)));
+
+        return result;
+    }
+
+    private Map<String, Double> perStepType(ToDoubleFunction<StepTimings> f) {
+        Map<String, Double> result = new TreeMap<>();
+        total.getStepTimings().forEach((c, st) ->
+                result.put(c.getSimpleName(), f.applyAsDouble(st))
+        );
+        return result;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    public synchronized String toString() {
+        return "Thoughts:" + thoughtCount + " " + total;
+    }
+}
@@ -14,31 +14,44 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.elements;
+package network.aika.metrics;
 
-import network.aika.elements.neurons.NeuronProvider;
-
-import java.util.Comparator;
+import java.util.Map;
 
 /**
+ * JMX view of the {@link ModelMetrics}. Times per phase and per step type are keyed by their name.
  *
  * @author Lukas Molzberger
  */
-public class OutputKey {
+public interface ModelMetricsMXBean {
+
+    long getThoughtCount();
+
+    long getStepCount();
+
+    double getTotalStepTimeMillis();
+
+    int getQueueHighWaterMark();
+
+    long getActivationsCreated();
+
+    long getLinksCreated();
+
+    long getVisitorInvocations();
+
+    Map<String, Long> getCountPerPhase();
+
+    Map<String, Double> getTotalTimeMillisPerPhase();
+
+    Map<String, Double> getP50TimeMicrosPerPhase();
+
+    Map<String, Double> getP99TimeMicrosPerPhase();
 
-    public static final Comparator<OutputKey> COMPARATOR = Comparator
-            .<OutputKey, NeuronProvider>comparing(ok -> ok.n)
-            .thenComparingInt(ok -> ok.actId);
+    Map<String, Long> getCountPerStepType();
 
-    private final NeuronProvider n;
-    private final Integer actId;
+    Map<String, Double> getTotalTimeMillisPerStepType();
 
-    public OutputKey(NeuronProvider n, Integer actId) {
-        this.n = n;
-        this.actId = actId;
-    }
+    Map<String, Double> getP99TimeMicrosPerStepType();
 
-    public String toString() {
-        return "[" + n.getId() + "]:" + actId;
-    }
+    void reset();
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+/**
+ * Aggregates the wall times of processed steps. Besides the count, the total and the maximum, the
+ * times are recorded in a log-linear histogram, from which percentiles can be estimated with a relative
+ * error of at most 1 / {@link #SUB_BUCKETS}. Recording a value neither allocates nor locks.
+ *
+ * @author Lukas Molzberger
+ */
+public class StepTimings {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] buckets = new long[NUM_BUCKETS];
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos) {
+        if(nanos < 0)
+            nanos = 0;
+
+        buckets[bucketIndex(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if(nanos > maxNanos)
+            maxNanos = nanos;
+    }
+
+    public void add(StepTimings st) {
+        for(int i = 0; i < NUM_BUCKETS; i++)
+            buckets[i] += st.buckets[i];
+
+        count += st.count;
+        totalNanos += st.totalNanos;
+        maxNanos = Math.max(maxNanos, st.maxNanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return count > 0 ?
+                totalNanos / (double) count :
+                0.0;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile (0.0 - 1.0) of the recorded times.
+     */
+    public long getPercentileNanos(double p) {
+        if(count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long cumulative = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            cumulative += buckets[i];
+            if(cumulative >= rank)
+                return Math.min(bucketUpperBound(i), maxNanos);
+        }
+        return maxNanos;
+    }
+
+    static int bucketIndex(long v) {
+        if(v < SUB_BUCKETS)
+            return (int) v;
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(v)) - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    static long bucketUpperBound(int index) {
+        if(index < SUB_BUCKETS)
+            return index;
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        return ((SUB_BUCKETS + sub + 1L) << shift) - 1;
+    }
+
+    public String toString() {
+        return "n:" + count +
+                " total:" + (totalNanos / 1000) + "us" +
+                " mean:" + Math.round(getMeanNanos() / 1000.0) + "us" +
+                " p50:" + (getPercentileNanos(0.5) / 1000) + "us" +
+                " p99:" + (getPercentileNanos(0.99) / 1000) + "us" +
+                " max:" + (maxNanos / 1000) + "us";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.metrics;
+
+import network.aika.elements.Element;
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.Link;
+import network.aika.steps.Phase;
+import network.aika.steps.Step;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects the step timings per {@link Phase} and per {@link Step} class of a thought, together with the
+ * high-water mark of the step queue and the number of activations, links and visitors created. The
+ * metrics of a thought are only accessed by the thread processing it, so no synchronization is needed.
+ * Metrics are collected if they are enabled through {@link network.aika.Config#setMetricsEnabled(boolean)}.
+ *
+ * @author Lukas Molzberger
+ */
+public class ThoughtMetrics {
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final StepTimings[] phaseTimings = new StepTimings[PHASES.length];
+    private final Map<Class<? extends Step>, StepTimings> stepTimings = new HashMap<>();
+
+    private int queueHighWaterMark;
+
+    private long activationsCreated;
+    private long linksCreated;
+    private long visitorInvocations;
+
+    public ThoughtMetrics() {
+        for(int i = 0; i < phaseTimings.length; i++)
+            phaseTimings[i] = new StepTimings();
+    }
+
+    public void recordStep(Step s, long nanos) {
+        phaseTimings[s.getPhase().ordinal()].record(nanos);
+        stepTimings.computeIfAbsent(s.getClass(), c -> new StepTimings())
+                .record(nanos);
+    }
+
+    public void updateQueueSize(int size) {
+        if(size > queueHighWaterMark)
+            queueHighWaterMark = size;
+    }
+
+    public void onCreate(Element e) {
+        if(e instanceof Activation)
+            activationsCreated++;
+        else if(e instanceof Link)
+            linksCreated++;
+    }
+
+    public void onNewVisitor() {
+        visitorInvocations++;
+    }
+
+    public void add(ThoughtMetrics tm) {
+        for(int i = 0; i < phaseTimings.length; i++)
+            phaseTimings[i].add(tm.phaseTimings[i]);
+
+        tm.stepTimings.forEach((c, st) ->
+                stepTimings.computeIfAbsent(c, k -> new StepTimings())
+                        .add(st)
+        );
+
+        queueHighWaterMark = Math.max(queueHighWaterMark, tm.queueHighWaterMark);
+        activationsCreated += tm.activationsCreated;
+        linksCreated += tm.linksCreated;
+        visitorInvocations += tm.visitorInvocations;
+    }
+
+    public StepTimings getPhaseTimings(Phase p) {
+        return phaseTimings[p.ordinal()];
+    }
+
+    public Map<Class<? extends Step>, StepTimings> getStepTimings() {
+        return Collections.unmodifiableMap(stepTimings);
+    }
+
+    public StepTimings getStepTimings(Class<? extends Step> stepClass) {
+        return stepTimings.get(stepClass);
+    }
+
+    public long getStepCount() {
+        long n = 0;
+        for(StepTimings st: phaseTimings)
+            n += st.getCount();
+        return n;
+    }
+
+    public long getTotalStepNanos() {
+        long t = 0;
+        for(StepTimings st: phaseTimings)
+            t += st.getTotalNanos();
+        return t;
+    }
+
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark;
+    }
+
+    public long getActivationsCreated() {
+        return activationsCreated;
+    }
+
+    public long getLinksCreated() {
+        return linksCreated;
+    }
+
+    public long getVisitorInvocations() {
+        return visitorInvocations;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Steps:" + getStepCount() +
+                " QueueHighWaterMark:" + queueHighWaterMark +
+                " Activations:" + activationsCreated +
+                " Links:" + linksCreated +
+                " Visitors:" + visitorInvocations + "\n");
+
+        for(Phase p: PHASES) {
+            StepTimings st = getPhaseTimings(p);
+            if(st.getCount() > 0)
+                sb.append("  " + p + " " + st + "\n");
+        }
+
+        stepTimings.forEach((c, st) ->
+                sb.append("  " + c.getSimpleName() + " " + st + "\n")
+        );
+        return sb.toString();
+    }
+}
@@ -26,6 +26,8 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import static network.aika.utils.CompactEncoding.*;
+
 /**
  * The <a href="https://en.wikipedia.org/wiki/Sample_space}">Sample Space</a> keeps track of the number of
  * training instances a certain neuron or synapse has encountered. The Sample Space is used
@@ -96,10 +98,10 @@ public class SampleSpace implements Writable {
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeDouble(N);
+        writeDouble(out, N);
         out.writeBoolean(lastPosition != null);
         if(lastPosition != null)
-            out.writeLong(lastPosition);
+            writeVarLong(out, lastPosition);
     }
 
     public static SampleSpace read(DataInput in, Model m) throws IOException {
@@ -110,9 +112,9 @@ public class SampleSpace implements Writable {
 
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
-        N = in.readDouble();
+        N = readDouble(in);
         if(in.readBoolean())
-            lastPosition = in.readLong();
+            lastPosition = readVarLong(in);
     }
 
     public String toString(Range r) {
@@ -16,11 +16,11 @@
  */
 package network.aika.steps;
 
-import network.aika.Thought;
 import network.aika.elements.Timestamp;
 import network.aika.fields.QueueField;
 import network.aika.elements.Element;
 import network.aika.steps.keys.FieldQueueKey;
+import network.aika.steps.keys.QueueKey;
 import network.aika.utils.Utils;
 
 import static network.aika.steps.keys.FieldQueueKey.SORT_VALUE_PRECISION;
@@ -45,6 +45,10 @@ public class FieldStep<E extends Element> extends Step<E> {
 
     public FieldStep(E e, Phase p, int round, QueueField qf) {
         super(e);
+        init(p, round, qf);
+    }
+
+    private void init(Phase p, int round, QueueField qf) {
         this.phase = p;
         this.round = p.isDelayed() ?
                 Integer.MAX_VALUE :
@@ -53,16 +57,34 @@ public class FieldStep<E extends Element> extends Step<E> {
         this.field = qf;
     }
 
+    /**
+     * Prepares a pooled step for its reuse by another field, see {@link FieldStepPool}.
+     */
+    void reuse(E e, Phase p, int round, QueueField qf) {
+        assert !isQueued();
+
+        setElement(e);
+        init(p, round, qf);
+        sortValue = Integer.MAX_VALUE;
+        delta = 0.0;
+    }
+
+    /**
+     * Drops the references to the field and its element, so that a pooled step does not keep them alive.
+     */
+    void release() {
+        setElement(null);
+        field = null;
+    }
+
     private void updateSortValue(double newSortValue) {
         if(Utils.belowTolerance(TOLERANCE, sortValue - newSortValue))
             return;
 
         if(isQueued()) {
-            Element ref = (Element) field.getReference();
-            Thought t = ref.getThought();
-            t.removeStep(this);
             sortValue = convertSortValue(newSortValue);
-            t.addStep(this);
+            Element ref = (Element) field.getReference();
+            ref.getThought().updateStep(this);
         } else
             sortValue = convertSortValue(newSortValue);
     }
@@ -85,8 +107,19 @@ public class FieldStep<E extends Element> extends Step<E> {
         delta = 0.0;
     }
 
-    public void createQueueKey(Timestamp timestamp) {
-        queueKey = new FieldQueueKey(round, getPhase(), sortValue, timestamp);
+    @Override
+    protected long getSortKey() {
+        return -sortValue;
+    }
+
+    @Override
+    protected long getSecondarySortKey() {
+        return 0;
+    }
+
+    @Override
+    protected QueueKey createQueueKey(int round, Phase phase, long timestamp) {
+        return new FieldQueueKey(round, phase, (int) -sortKey, new Timestamp(timestamp));
     }
 
     @Override
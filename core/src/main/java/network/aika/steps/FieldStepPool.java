@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import network.aika.elements.Element;
+import network.aika.fields.QueueField;
+
+import java.util.Arrays;
+
+/**
+ * Pool of processed field steps. Queue fields create a new step for every round in which they receive updates,
+ * which makes field steps by far the most frequently allocated objects while a thought is processed. A thought
+ * that has pooling enabled takes a pool from its model and hands it back when it is disconnected, so that the
+ * steps are reused by the following documents.
+ *
+ * A pool is only used by one thought at a time and is therefore not synchronized.
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldStepPool {
+
+    public static int MAX_POOLED_STEPS = 1 << 14;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private FieldStep[] steps = new FieldStep[INITIAL_CAPACITY];
+    private int size;
+
+    private long reused;
+
+    public <E extends Element> FieldStep<E> acquire(E e, Phase p, int round, QueueField qf) {
+        if(size == 0)
+            return new FieldStep<>(e, p, round, qf);
+
+        FieldStep<E> s = steps[--size];
+        steps[size] = null;
+
+        s.reuse(e, p, round, qf);
+        reused++;
+        return s;
+    }
+
+    public void release(FieldStep s) {
+        if(s.isQueued() || size >= MAX_POOLED_STEPS)
+            return;
+
+        s.release();
+
+        if(size == steps.length)
+            steps = Arrays.copyOf(steps, size << 1);
+
+        steps[size++] = s;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of steps that have been handed out again instead of being allocated
+     */
+    public long getReused() {
+        return reused;
+    }
+}
@@ -18,10 +18,10 @@ package network.aika.steps;
 
 import network.aika.Thought;
 import network.aika.elements.Element;
-import network.aika.elements.Timestamp;
 import network.aika.steps.keys.FiredQueueKey;
 import network.aika.steps.keys.QueueKey;
 
+import static network.aika.elements.Timestamp.NOT_SET;
 import static network.aika.steps.keys.QueueKey.MAX_ROUND;
 
 
@@ -30,26 +30,69 @@ import static network.aika.steps.keys.QueueKey.MAX_ROUND;
  */
 public abstract class Step<E extends Element> {
 
+    private static final int PHASE_BITS = 8;
+
+    private static final Phase[] PHASES = Phase.values();
+
     private E element;
-    protected QueueKey queueKey;
+
+    int queueIndex = -1;
+
+    long roundPhaseKey;
+    long sortKey;
+    long secondarySortKey;
+    long timestampKey;
 
     public Step(E element) {
         this.element = element;
     }
 
     public boolean isQueued() {
-        return queueKey != null;
+        return queueIndex >= 0;
+    }
+
+    /**
+     * Captures the current sort keys of this step. Called by the thought before the step is
+     * (re-)inserted into the queue.
+     */
+    public void updateQueueKey(long timestamp) {
+        roundPhaseKey = ((long) getRound() << PHASE_BITS) | getPhase().ordinal();
+        sortKey = getSortKey();
+        secondarySortKey = getSecondarySortKey();
+        timestampKey = timestamp;
+    }
+
+    protected long getSortKey() {
+        return element.getFired().getTimestamp();
+    }
+
+    protected long getSecondarySortKey() {
+        return element.getCreated().getTimestamp();
     }
 
+    public int getQueuedRound() {
+        return (int) (roundPhaseKey >>> PHASE_BITS);
+    }
+
+    public Phase getQueuedPhase() {
+        return PHASES[(int) (roundPhaseKey & ((1 << PHASE_BITS) - 1))];
+    }
+
+    /**
+     * Returns a readable representation of the sort keys of this step, or null if the step is not queued.
+     */
     public QueueKey getQueueKey() {
-        return queueKey;
+        return isQueued() ?
+                createQueueKey(getQueuedRound(), getQueuedPhase(), timestampKey) :
+                null;
     }
 
-    public void createQueueKey(Timestamp timestamp) {
-        queueKey = new FiredQueueKey(
-                getRound(),
-                getPhase(),
-                element,
+    protected QueueKey createQueueKey(int round, Phase phase, long timestamp) {
+        return new FiredQueueKey(
+                round,
+                phase,
+                sortKey != NOT_SET.getTimestamp() ? sortKey : null,
+                secondarySortKey,
                 timestamp
         );
     }
@@ -60,10 +103,6 @@ public abstract class Step<E extends Element> {
                 element.getThought().getRound(false);
     }
 
-    public void removeQueueKey() {
-        queueKey = null;
-    }
-
     public String getStepName() {
         return getClass().getSimpleName();
     }
@@ -85,6 +124,10 @@ public abstract class Step<E extends Element> {
         return element;
     }
 
+    protected void setElement(E element) {
+        this.element = element;
+    }
+
     public String toString() {
         return "" + getElement();
     }
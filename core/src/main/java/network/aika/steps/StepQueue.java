@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.steps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Binary min-heap of the queued steps of a thought. The sort keys are stored as primitive longs
+ * directly within the steps, together with their current position in the heap. This way, neither
+ * adding, polling nor re-sorting a step requires any allocations.
+ *
+ * The order is the same as the one defined by {@link network.aika.steps.keys.QueueKey#COMPARATOR}:
+ * round and phase first, then the step specific sort value and finally the timestamp at which the
+ * step was queued.
+ *
+ * @author Lukas Molzberger
+ */
+public class StepQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Step[] heap = new Step[INITIAL_CAPACITY];
+    private int size;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Step peek() {
+        return size > 0 ? heap[0] : null;
+    }
+
+    public void add(Step s) {
+        assert s.queueIndex < 0;
+
+        if(size == heap.length)
+            heap = Arrays.copyOf(heap, size << 1);
+
+        s.queueIndex = size;
+        heap[size++] = s;
+        siftUp(s.queueIndex);
+    }
+
+    public Step poll() {
+        if(size == 0)
+            return null;
+
+        Step first = heap[0];
+        removeAt(0);
+        return first;
+    }
+
+    public boolean remove(Step s) {
+        int i = s.queueIndex;
+        if(i < 0 || i >= size || heap[i] != s)
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Restores the heap order after the sort key of an already queued step has been changed.
+     */
+    public void update(Step s) {
+        int i = s.queueIndex;
+        assert i >= 0 && heap[i] == s;
+
+        if(!siftUp(i))
+            siftDown(i);
+    }
+
+    /**
+     * Removes all queued steps that match the filter. The backing array is compacted in place and the heap is
+     * rebuilt bottom-up, so that neither a sorted snapshot nor any other allocation is needed.
+     *
+     * @return true if any step has been removed
+     */
+    public boolean removeIf(Predicate<Step> filter) {
+        int n = 0;
+        for(int i = 0; i < size; i++) {
+            Step s = heap[i];
+            if(filter.test(s)) {
+                s.queueIndex = -1;
+                continue;
+            }
+            s.queueIndex = n;
+            heap[n++] = s;
+        }
+
+        if(n == size)
+            return false;
+
+        Arrays.fill(heap, n, size, null);
+        size = n;
+
+        for(int i = (size >>> 1) - 1; i >= 0; i--)
+            siftDown(i);
+
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the queued steps in processing order.
+     */
+    public List<Step> toSortedList() {
+        Step[] steps = Arrays.copyOf(heap, size);
+        Arrays.sort(steps, StepQueue::compare);
+        return Arrays.asList(steps);
+    }
+
+    private void removeAt(int i) {
+        Step removed = heap[i];
+        removed.queueIndex = -1;
+
+        Step last = heap[--size];
+        heap[size] = null;
+
+        if(i == size)
+            return;
+
+        heap[i] = last;
+        last.queueIndex = i;
+
+        if(!siftUp(i))
+            siftDown(i);
+    }
+
+    private boolean siftUp(int i) {
+        Step s = heap[i];
+        int start = i;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Step p = heap[parent];
+            if(compare(s, p) >= 0)
+                break;
+
+            heap[i] = p;
+            p.queueIndex = i;
+            i = parent;
+        }
+        heap[i] = s;
+        s.queueIndex = i;
+        return i != start;
+    }
+
+    private void siftDown(int i) {
+        Step s = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if(right < size && compare(heap[right], heap[child]) < 0)
+                child = right;
+
+            Step c = heap[child];
+            if(compare(s, c) <= 0)
+                break;
+
+            heap[i] = c;
+            c.queueIndex = i;
+            i = child;
+        }
+        heap[i] = s;
+        s.queueIndex = i;
+    }
+
+    static int compare(Step a, Step b) {
+        int r = Long.compare(a.roundPhaseKey, b.roundPhaseKey);
+        if(r != 0)
+            return r;
+
+        r = Long.compare(a.sortKey, b.sortKey);
+        if(r != 0)
+            return r;
+
+        r = Long.compare(a.secondarySortKey, b.secondarySortKey);
+        if(r != 0)
+            return r;
+
+        return Long.compare(a.timestampKey, b.timestampKey);
+    }
+}
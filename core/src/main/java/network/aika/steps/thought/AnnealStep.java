@@ -16,12 +16,14 @@
  */
 package network.aika.steps.thought;
 
+import network.aika.Config;
 import network.aika.Thought;
 import network.aika.elements.Timestamp;
 import network.aika.ActivationFunction;
 import network.aika.steps.Phase;
 import network.aika.steps.Step;
 import network.aika.steps.keys.DocQueueKey;
+import network.aika.steps.keys.QueueKey;
 
 import static network.aika.steps.Phase.*;
 import static network.aika.steps.keys.QueueKey.MAX_ROUND;
@@ -45,11 +47,21 @@ public class AnnealStep extends Step<Thought> {
     }
 
     @Override
-    public void createQueueKey(Timestamp timestamp) {
-        queueKey = new DocQueueKey(
+    protected long getSortKey() {
+        return 0;
+    }
+
+    @Override
+    protected long getSecondarySortKey() {
+        return 0;
+    }
+
+    @Override
+    protected QueueKey createQueueKey(int round, Phase phase, long timestamp) {
+        return new DocQueueKey(
                 MAX_ROUND,
-                getPhase(),
-                timestamp
+                phase,
+                new Timestamp(timestamp)
         );
     }
 
@@ -58,18 +70,25 @@ public class AnnealStep extends Step<Thought> {
         Thought t = getElement();
 
         double av = t.getAnnealing().getValue();
-        nextStep = t.getConfig().getAnnealStepSize() / ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(av);
-        double nextAnnealValue = nextStep + av;
-        nextAnnealValue = Math.min(nextAnnealValue, 1.0);
+        nextStep = getStepSize(t.getConfig(), av);
+        double nextAnnealValue = Math.min(nextStep + av, 1.0);
 
-        t.incrementRound();
-        t.setFeedbackTriggerRound();
-        t.getAnnealing().setValue(nextAnnealValue);
+        setAnnealValue(t, nextAnnealValue);
 
         if (nextAnnealValue < 1.0)
             AnnealStep.add(t);
     }
 
+    public static double getStepSize(Config c, double av) {
+        return c.getAnnealStepSize() / ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT.outerGrad(av);
+    }
+
+    public static void setAnnealValue(Thought t, double annealValue) {
+        t.incrementRound();
+        t.setFeedbackTriggerRound();
+        t.getAnnealing().setValue(annealValue);
+    }
+
     @Override
     public Phase getPhase() {
         return ANNEAL;
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import network.aika.Model;
+import network.aika.utils.Writable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Moves the writes of another suspension callback off the processing threads. Stored neurons are
+ * collected in a pending map keyed by the neuron id, so that repeated saves of the same neuron, within
+ * one thought or across thoughts, are coalesced into a single write. A background writer thread hands
+ * the pending neurons as one batch to {@link SuspensionCallback#storeBatch(List)} of the delegate.
+ *
+ * Pending and in-flight neurons are visible to {@link #retrieve(Long)}, so a neuron can be suspended and
+ * reactivated before it has been written. {@link #flush()}, {@link #saveIndex(Model)} and
+ * {@link #close(Model)} wait until all pending writes are durable in the delegate. If the pending data
+ * exceeds {@link #getMaxPendingBytes()}, {@link #store(Long, String, Writable, byte[])} blocks until the
+ * writer has caught up. Errors of the writer thread are rethrown by the next call to store, flush or close.
+ *
+ * @author Lukas Molzberger
+ */
+public class AsyncSuspensionCallback implements SuspensionCallback {
+
+    public static long DEFAULT_MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    private final SuspensionCallback delegate;
+
+    private long maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+
+    private LinkedHashMap<Long, SaveRequest> pending = new LinkedHashMap<>();
+    private long pendingBytes;
+
+    private Map<Long, SaveRequest> inFlight = Collections.emptyMap();
+
+    private Thread writer;
+    private boolean closed;
+    private IOException failure;
+
+    public AsyncSuspensionCallback(SuspensionCallback delegate) {
+        this.delegate = delegate;
+    }
+
+    public SuspensionCallback getDelegate() {
+        return delegate;
+    }
+
+    public long getMaxPendingBytes() {
+        return maxPendingBytes;
+    }
+
+    public void setMaxPendingBytes(long maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public void prepareNewModel() throws IOException {
+        delegate.prepareNewModel();
+    }
+
+    @Override
+    public synchronized void open(Model m) throws IOException {
+        delegate.open(m);
+
+        closed = false;
+        writer = new Thread(this::writeLoop, "aika-suspension-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void close(Model model) throws IOException {
+        Thread w;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            w = writer;
+            writer = null;
+        }
+
+        if(w != null) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        synchronized (this) {
+            checkFailure();
+        }
+        delegate.close(model);
+    }
+
+    @Override
+    public long createId() {
+        return delegate.createId();
+    }
+
+    @Override
+    public synchronized void store(Long id, String label, Writable customData, byte[] data) throws IOException {
+        checkFailure();
+
+        if(writer == null) {
+            delegate.store(id, label, customData, data);
+            return;
+        }
+
+        while (pendingBytes >= maxPendingBytes && !pending.isEmpty())
+            awaitWriter();
+
+        SaveRequest previous = pending.put(id, new SaveRequest(id, label, customData, data));
+        if(previous != null)
+            pendingBytes -= previous.data().length;
+
+        pendingBytes += data.length;
+        notifyAll();
+    }
+
+    @Override
+    public void storeBatch(List<SaveRequest> batch) throws IOException {
+        for(SaveRequest r: batch)
+            store(r.id(), r.label(), r.customData(), r.data());
+    }
+
+    @Override
+    public synchronized void remove(Long id) throws IOException {
+        SaveRequest r = pending.remove(id);
+        if(r != null)
+            pendingBytes -= r.data().length;
+
+        while (inFlight.containsKey(id))
+            awaitWriter();
+
+        delegate.remove(id);
+    }
+
+    @Override
+    public byte[] retrieve(Long id) throws IOException {
+        SaveRequest r = getPendingRequest(id);
+        return r != null ?
+                r.data() :
+                delegate.retrieve(id);
+    }
+
+    @Override
+    public ByteBuffer retrieveBuffer(Long id) throws IOException {
+        SaveRequest r = getPendingRequest(id);
+        return r != null ?
+                ByteBuffer.wrap(r.data()).asReadOnlyBuffer() :
+                delegate.retrieveBuffer(id);
+    }
+
+    private synchronized SaveRequest getPendingRequest(Long id) {
+        SaveRequest r = pending.get(id);
+        return r != null ?
+                r :
+                inFlight.get(id);
+    }
+
+    @Override
+    public synchronized Collection<Long> getAllIds() {
+        Set<Long> ids = new TreeSet<>(delegate.getAllIds());
+        ids.addAll(inFlight.keySet());
+        ids.addAll(pending.keySet());
+        return ids;
+    }
+
+    @Override
+    public Long getIdByLabel(String label) {
+        return delegate.getIdByLabel(label);
+    }
+
+    @Override
+    public void putLabel(String label, Long id) {
+        delegate.putLabel(label, id);
+    }
+
+    @Override
+    public void removeLabel(String label) {
+        delegate.removeLabel(label);
+    }
+
+    @Override
+    public void loadIndex(Model m) {
+        delegate.loadIndex(m);
+    }
+
+    @Override
+    public void saveIndex(Model m) throws IOException {
+        flush();
+        delegate.saveIndex(m);
+    }
+
+    /**
+     * Blocks until all neurons stored so far have been written by the delegate.
+     */
+    public synchronized void flush() throws IOException {
+        while (!pending.isEmpty() || !inFlight.isEmpty()) {
+            checkFailure();
+            awaitWriter();
+        }
+        checkFailure();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<SaveRequest> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed)
+                    awaitWriterSilently();
+
+                if(pending.isEmpty())
+                    return;
+
+                inFlight = pending;
+                batch = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+                pendingBytes = 0;
+                notifyAll();
+            }
+
+            IOException error = null;
+            try {
+                delegate.storeBatch(batch);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new IOException(e);
+            }
+
+            synchronized (this) {
+                if(error != null && failure == null)
+                    failure = error;
+
+                inFlight = Collections.emptyMap();
+                notifyAll();
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if(failure != null)
+            throw new IOException("Asynchronous write of suspended neurons failed", failure);
+    }
+
+    private void awaitWriter() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private void awaitWriterSilently() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            // The writer only terminates through close(), so that no pending neurons are lost.
+        }
+    }
+}
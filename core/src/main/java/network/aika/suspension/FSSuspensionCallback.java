@@ -22,12 +22,24 @@ import network.aika.suspension.SuspensionCallback;
 import network.aika.utils.Writable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
 /**
+ * Every change of the index is recorded in an {@link IndexJournal}. The full index is only written as a
+ * checkpoint, either periodically after a configurable number of journal records or when the model is
+ * closed. Loading the index replays the journal on top of the last checkpoint.
+ *
+ * The journal records are flushed to the operating system but not forced to the storage device, so they protect
+ * against a crash of the process. Against a power loss, durability only holds up to the last checkpoint: Before a
+ * checkpoint is written, the model file is forced to the storage device.
  *
  * @author Lukas Molzberger
  */
@@ -35,10 +47,12 @@ public class FSSuspensionCallback implements SuspensionCallback {
 
     public static String MODEL = "model";
     public static String INDEX = "index";
+    public static String JOURNAL = "journal";
+    public static String LABELS = "labels";
 
     private AtomicLong currentId = new AtomicLong(0);
 
-    private Map<String, Long> labels = Collections.synchronizedMap(new HashMap<>());
+    private LabelIndex labels = new HashLabelIndex();
     private Map<Long, long[]> index = Collections.synchronizedMap(new TreeMap<>());
 
     private Path path;
@@ -46,6 +60,10 @@ public class FSSuspensionCallback implements SuspensionCallback {
 
     private RandomAccessFile modelStore;
 
+    private Model model;
+    private IndexJournal journal;
+    private int checkpointInterval = IndexJournal.DEFAULT_CHECKPOINT_INTERVAL;
+
     private boolean readOnly;
 
     public FSSuspensionCallback(Path path, String modelLabel, boolean readOnly) {
@@ -54,6 +72,29 @@ public class FSSuspensionCallback implements SuspensionCallback {
         this.readOnly = readOnly;
     }
 
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public LabelIndex getLabelIndex() {
+        return labels;
+    }
+
+    public void setLabelIndex(LabelIndex labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * Keeps the labels in a memory mapped {@link MappedLabelIndex} instead of on the heap.
+     */
+    public void useMappedLabelIndex() throws IOException {
+        setLabelIndex(new MappedLabelIndex(getFile(LABELS), readOnly));
+    }
+
     public void prepareNewModel() throws IOException {
         if(readOnly)
             return;
@@ -66,14 +107,30 @@ public class FSSuspensionCallback implements SuspensionCallback {
         File indexFile = getFile(INDEX);
         if(indexFile.exists())
             indexFile.delete();
+
+        File journalFile = getFile(JOURNAL);
+        if(journalFile.exists())
+            journalFile.delete();
+
+        labels.clear();
     }
 
-    public void open() throws IOException {
+    public void open(Model m) throws IOException {
+        model = m;
         modelStore = new RandomAccessFile(getFile(MODEL), "rw");
+
+        if(!readOnly) {
+            journal = new IndexJournal(getFile(JOURNAL));
+            journal.open();
+        }
     }
 
     public void close(Model model) throws IOException {
         this.saveIndex(model);
+
+        if(journal != null)
+            journal.close();
+
         modelStore.close();
     }
 
@@ -83,16 +140,34 @@ public class FSSuspensionCallback implements SuspensionCallback {
     }
 
     @Override
-    public void putLabel(String label, Long id) {
+    public synchronized void putLabel(String label, Long id) {
         labels.put(label, id);
+
+        if(journal != null) {
+            try {
+                journal.logPutLabel(label, id);
+                checkCheckpoint();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
-    public void removeLabel(String label) {
+    public synchronized void removeLabel(String label) {
         if (label == null)
             return;
 
         labels.remove(label);
+
+        if(journal != null) {
+            try {
+                journal.logRemoveLabel(label);
+                checkCheckpoint();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
@@ -107,8 +182,42 @@ public class FSSuspensionCallback implements SuspensionCallback {
 
         modelStore.seek(modelStore.length());
 
-        index.put(id, new long[]{modelStore.getFilePointer(), data.length});
+        long[] pos = new long[]{modelStore.getFilePointer(), data.length};
         modelStore.write(data);
+
+        index.put(id, pos);
+        journal.logStore(id, pos);
+        checkCheckpoint();
+    }
+
+    /**
+     * Appends all neurons of the batch with a single gathering write and journals them with a single flush.
+     */
+    @Override
+    public synchronized void storeBatch(List<SaveRequest> batch) throws IOException {
+        if(readOnly || batch.isEmpty())
+            return;
+
+        long offset = modelStore.length();
+
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        Map<Long, long[]> positions = new LinkedHashMap<>();
+        long pos = offset;
+        for(int i = 0; i < buffers.length; i++) {
+            SaveRequest r = batch.get(i);
+            buffers[i] = ByteBuffer.wrap(r.data());
+            positions.put(r.id(), new long[]{pos, r.data().length});
+            pos += r.data().length;
+        }
+
+        FileChannel channel = modelStore.getChannel();
+        channel.position(offset);
+        while (channel.position() < pos)
+            channel.write(buffers);
+
+        index.putAll(positions);
+        journal.logStores(positions);
+        checkCheckpoint();
     }
 
     @Override
@@ -126,8 +235,13 @@ public class FSSuspensionCallback implements SuspensionCallback {
     }
 
     @Override
-    public synchronized void remove(Long id) {
+    public synchronized void remove(Long id) throws IOException {
         index.remove(id);
+
+        if(journal != null) {
+            journal.logRemove(id);
+            checkCheckpoint();
+        }
     }
 
     @Override
@@ -137,28 +251,86 @@ public class FSSuspensionCallback implements SuspensionCallback {
 
     @Override
     public void loadIndex(Model m) {
-        try (FileInputStream fis = new FileInputStream(getFile(INDEX));
-             ByteArrayInputStream bais = new ByteArrayInputStream(fis.readAllBytes());
-             DataInputStream dis = new DataInputStream(bais)) {
-            m.readFields(dis, m);
-            readIndex(dis);
-        } catch (Exception e) {
+        File indexFile = getFile(INDEX);
+        if(indexFile.exists()) {
+            try (FileInputStream fis = new FileInputStream(indexFile);
+                 ByteArrayInputStream bais = new ByteArrayInputStream(fis.readAllBytes());
+                 DataInputStream dis = new DataInputStream(bais)) {
+                m.readFields(dis, m);
+                readIndex(dis);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        try {
+            IndexJournal.replay(getFile(JOURNAL), new IndexJournal.Listener() {
+                @Override
+                public void onStore(Long id, long[] pos) {
+                    index.put(id, pos);
+                    updateCurrentId(id);
+                }
+
+                @Override
+                public void onRemove(Long id) {
+                    index.remove(id);
+                }
+
+                @Override
+                public void onPutLabel(String label, Long id) {
+                    labels.put(label, id);
+                    updateCurrentId(id);
+                }
+
+                @Override
+                public void onRemoveLabel(String label) {
+                    labels.remove(label);
+                }
+            });
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void updateCurrentId(Long id) {
+        currentId.accumulateAndGet(id, Math::max);
+    }
+
+    private void checkCheckpoint() throws IOException {
+        if(model != null && journal.getNumberOfRecords() >= checkpointInterval)
+            saveIndex(model);
+    }
+
+    /**
+     * Writes a checkpoint of the full index and afterwards truncates the journal. The checkpoint is first
+     * written to a temporary file, which then atomically replaces the previous checkpoint.
+     */
     @Override
-    public void saveIndex(Model m) {
+    public synchronized void saveIndex(Model m) {
         if(readOnly)
             return;
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
-        try (DataOutputStream dos = new DataOutputStream(baos);
-             FileOutputStream fos = new FileOutputStream(getFile(INDEX))) {
+        File indexFile = getFile(INDEX);
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            // The checkpoint must not refer to records that have not reached the storage device yet, since the
+            // journal is truncated afterwards.
+            if(modelStore != null)
+                modelStore.getFD().sync();
+
             m.write(dos);
             writeIndex(dos);
-            fos.write(baos.toByteArray());
+
+            try (FileOutputStream fos = new FileOutputStream(tmpFile)) {
+                fos.write(baos.toByteArray());
+                fos.getFD().sync();
+            }
+            Files.move(tmpFile.toPath(), indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+            if(journal != null)
+                journal.truncate();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -171,12 +343,7 @@ public class FSSuspensionCallback implements SuspensionCallback {
     private void readIndex(DataInput in) throws IOException {
         currentId = new AtomicLong(in.readLong());
 
-        labels.clear();
-        while(in.readBoolean()) {
-            String l = in.readUTF();
-            Long id = in.readLong();
-            labels.put(l, id);
-        }
+        labels.readCheckpoint(in);
 
         index.clear();
         while(in.readBoolean()) {
@@ -192,12 +359,7 @@ public class FSSuspensionCallback implements SuspensionCallback {
     private void writeIndex(DataOutput out) throws IOException {
         out.writeLong(currentId.get());
 
-        for(Map.Entry<String, Long> me: labels.entrySet()) {
-            out.writeBoolean(true);
-            out.writeUTF(me.getKey());
-            out.writeLong(me.getValue());
-        }
-        out.writeBoolean(false);
+        labels.writeCheckpoint(out);
 
         for(Map.Entry<Long, long[]> me: index.entrySet()) {
             out.writeBoolean(true);
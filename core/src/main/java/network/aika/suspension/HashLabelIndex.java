@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Label index that keeps all labels on the heap and writes them inline into the index checkpoint.
+ *
+ * @author Lukas Molzberger
+ */
+public class HashLabelIndex implements LabelIndex {
+
+    private final Map<String, Long> labels = new ConcurrentHashMap<>();
+
+    @Override
+    public Long get(String label) {
+        return labels.get(label);
+    }
+
+    @Override
+    public void put(String label, Long id) {
+        labels.put(label, id);
+    }
+
+    @Override
+    public void remove(String label) {
+        labels.remove(label);
+    }
+
+    @Override
+    public void clear() {
+        labels.clear();
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        for(Map.Entry<String, Long> me: labels.entrySet()) {
+            out.writeBoolean(true);
+            out.writeUTF(me.getKey());
+            out.writeLong(me.getValue());
+        }
+        out.writeBoolean(false);
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        labels.clear();
+        LabelIndex.readInlineEntries(in, this);
+    }
+}
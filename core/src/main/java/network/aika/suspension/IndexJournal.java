@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The index journal is a write-ahead log for the index of a suspension callback. Every change of the
+ * index is appended as soon as it occurs, so that the index can be restored after a crash by replaying
+ * the journal on top of the last checkpoint. Once a checkpoint of the full index has been written, the
+ * journal is truncated.
+ *
+ * Each record is framed by its length and a CRC32 checksum, which allows the replay to stop at a torn
+ * record at the end of the journal.
+ *
+ * The records are only flushed to the operating system. They are forced to the storage device by
+ * {@link #sync()} and {@link #truncate()}.
+ *
+ * @author Lukas Molzberger
+ */
+public class IndexJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexJournal.class);
+
+    public static int DEFAULT_CHECKPOINT_INTERVAL = 100000;
+
+    private static final byte STORE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte PUT_LABEL = 3;
+    private static final byte REMOVE_LABEL = 4;
+
+    public interface Listener {
+
+        void onStore(Long id, long[] pos);
+
+        void onRemove(Long id);
+
+        void onPutLabel(String label, Long id);
+
+        void onRemoveLabel(String label);
+    }
+
+    private final File file;
+
+    private FileOutputStream fos;
+    private DataOutputStream out;
+
+    private int numberOfRecords;
+
+    private ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+
+    public IndexJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void open() throws IOException {
+        fos = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fos));
+    }
+
+    public int getNumberOfRecords() {
+        return numberOfRecords;
+    }
+
+    public synchronized void logStore(Long id, long[] pos) throws IOException {
+        appendStoreRecord(id, pos);
+        out.flush();
+    }
+
+    /**
+     * Journals several stores at once, flushing the journal only a single time.
+     */
+    public synchronized void logStores(Map<Long, long[]> positions) throws IOException {
+        for(Map.Entry<Long, long[]> e: positions.entrySet())
+            appendStoreRecord(e.getKey(), e.getValue());
+
+        out.flush();
+    }
+
+    private void appendStoreRecord(Long id, long[] pos) throws IOException {
+        recordOut.writeByte(STORE);
+        recordOut.writeLong(id);
+        recordOut.writeByte(pos.length);
+        for(long p: pos)
+            recordOut.writeLong(p);
+
+        appendRecord();
+    }
+
+    public synchronized void logRemove(Long id) throws IOException {
+        recordOut.writeByte(REMOVE);
+        recordOut.writeLong(id);
+
+        appendRecord();
+        out.flush();
+    }
+
+    public synchronized void logPutLabel(String label, Long id) throws IOException {
+        recordOut.writeByte(PUT_LABEL);
+        recordOut.writeUTF(label);
+        recordOut.writeLong(id);
+
+        appendRecord();
+        out.flush();
+    }
+
+    public synchronized void logRemoveLabel(String label) throws IOException {
+        recordOut.writeByte(REMOVE_LABEL);
+        recordOut.writeUTF(label);
+
+        appendRecord();
+        out.flush();
+    }
+
+    private void appendRecord() throws IOException {
+        byte[] record = recordBuffer.toByteArray();
+        recordBuffer.reset();
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        out.writeInt(record.length);
+        out.writeInt((int) crc.getValue());
+        out.write(record);
+
+        numberOfRecords++;
+    }
+
+    /**
+     * Forces all journaled records to the storage device.
+     */
+    public synchronized void sync() throws IOException {
+        out.flush();
+        fos.getFD().sync();
+    }
+
+    /**
+     * Forces the journal to the storage device and afterwards discards its content. Must only be called
+     * once a checkpoint containing all journaled changes has been written.
+     */
+    public synchronized void truncate() throws IOException {
+        out.flush();
+        fos.getChannel().truncate(0);
+        fos.getFD().sync();
+        numberOfRecords = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(out == null)
+            return;
+
+        out.close();
+        out = null;
+        fos = null;
+    }
+
+    /**
+     * Replays all complete records of the journal file in the order in which they have been written.
+     *
+     * @return the number of replayed records
+     */
+    public static int replay(File file, Listener l) throws IOException {
+        if(!file.exists())
+            return 0;
+
+        int numRecords = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while(true) {
+                byte[] record = readRecord(in);
+                if(record == null)
+                    break;
+
+                applyRecord(new DataInputStream(new ByteArrayInputStream(record)), l);
+                numRecords++;
+            }
+        }
+        return numRecords;
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if(length <= 0)
+                return null;
+
+            byte[] record = new byte[length];
+            in.readFully(record);
+
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if((int) crc.getValue() != checksum) {
+                log.warn("Index journal contains a corrupt record. The remaining records are ignored.");
+                return null;
+            }
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void applyRecord(DataInput in, Listener l) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case STORE -> {
+                Long id = in.readLong();
+                long[] pos = new long[in.readByte()];
+                for (int i = 0; i < pos.length; i++)
+                    pos[i] = in.readLong();
+
+                l.onStore(id, pos);
+            }
+            case REMOVE -> l.onRemove(in.readLong());
+            case PUT_LABEL -> {
+                String label = in.readUTF();
+                l.onPutLabel(label, in.readLong());
+            }
+            case REMOVE_LABEL -> l.onRemoveLabel(in.readUTF());
+            default -> throw new IOException("Unknown index journal record type: " + type);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Maps the labels of neurons to their ids. Lookups may happen concurrently from several thoughts and
+ * therefore have to be lock-free, while changes are serialized by the owning suspension callback.
+ *
+ * The label index is persisted as part of the index checkpoint of the suspension callback. Implementations
+ * may either write their entries inline into the checkpoint or keep them in a separate file.
+ *
+ * @author Lukas Molzberger
+ */
+public interface LabelIndex {
+
+    Long get(String label);
+
+    void put(String label, Long id);
+
+    void remove(String label);
+
+    void clear() throws IOException;
+
+    void writeCheckpoint(DataOutput out) throws IOException;
+
+    void readCheckpoint(DataInput in) throws IOException;
+
+    /**
+     * Reads the label entries that are stored inline in an index checkpoint. Each entry is preceded by
+     * a {@code true} flag and the list is terminated by a {@code false} flag.
+     */
+    static void readInlineEntries(DataInput in, LabelIndex labels) throws IOException {
+        while(in.readBoolean()) {
+            String l = in.readUTF();
+            Long id = in.readLong();
+            labels.put(l, id);
+        }
+    }
+}
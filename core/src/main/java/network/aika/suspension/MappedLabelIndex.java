@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static network.aika.utils.CompactEncoding.writeVarInt;
+import static network.aika.utils.CompactEncoding.writeVarLong;
+
+/**
+ * Label index that keeps the labels off-heap, in a sorted string table that is mapped into memory.
+ *
+ * The labels of the table are sorted by their UTF-8 bytes and grouped into blocks of {@code blockSize}
+ * entries. Within a block, each label is front-coded, i.e. only the suffix that differs from the
+ * previous label is stored. The first label of every block is stored in full, so that a lookup can
+ * binary search the blocks directly within the mapping and then only has to decode a single block.
+ * Opening the index merely maps the file, instead of loading the labels onto the heap.
+ *
+ * Labels that have been added or removed since the last checkpoint are kept in a small on-heap overlay.
+ * The checkpoint merges the overlay into a new table, which replaces the previous one atomically.
+ * Lookups never take a lock, since the table is immutable and the overlay is a concurrent map.
+ *
+ * @author Lukas Molzberger
+ */
+public class MappedLabelIndex implements LabelIndex {
+
+    public static int DEFAULT_BLOCK_SIZE = 16;
+
+    private static final int MAGIC = 0x41494C58;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+
+    private static final Long REMOVED = Long.MIN_VALUE;
+
+    private final File file;
+    private final boolean readOnly;
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+
+    private volatile Table table;
+    private final Map<String, Long> overlay = new ConcurrentHashMap<>();
+
+    public MappedLabelIndex(File file, boolean readOnly) throws IOException {
+        this.file = file;
+        this.readOnly = readOnly;
+
+        if(file.exists())
+            table = Table.open(file);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @return the number of labels in the mapped table, not including the changes since the last checkpoint
+     */
+    public int getNumberOfMappedLabels() {
+        Table t = table;
+        return t != null ? t.count : 0;
+    }
+
+    @Override
+    public Long get(String label) {
+        Long id = overlay.get(label);
+        if(id != null)
+            return id.equals(REMOVED) ? null : id;
+
+        Table t = table;
+        return t != null ?
+                t.find(label.getBytes(StandardCharsets.UTF_8)) :
+                null;
+    }
+
+    @Override
+    public synchronized void put(String label, Long id) {
+        overlay.put(label, id);
+    }
+
+    @Override
+    public synchronized void remove(String label) {
+        overlay.put(label, REMOVED);
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        overlay.clear();
+        table = null;
+
+        if(!readOnly)
+            Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * Merges the overlay into a new table. No labels are written inline into the index checkpoint.
+     */
+    @Override
+    public synchronized void writeCheckpoint(DataOutput out) throws IOException {
+        if(!readOnly && !overlay.isEmpty()) {
+            File tmpFile = new File(file.getPath() + ".tmp");
+            writeTable(tmpFile);
+            Files.move(tmpFile.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+            table = Table.open(file);
+            overlay.clear();
+        }
+
+        out.writeBoolean(false);
+    }
+
+    /**
+     * Labels that are stored inline in the checkpoint, for instance by a previous {@link HashLabelIndex},
+     * are taken over into the overlay and will be moved into the table by the next checkpoint.
+     */
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        LabelIndex.readInlineEntries(in, this);
+    }
+
+    private void writeTable(File f) throws IOException {
+        Change[] changes = overlay.entrySet().stream()
+                .map(me -> new Change(me.getKey().getBytes(StandardCharsets.UTF_8), me.getValue()))
+                .sorted((c1, c2) -> Arrays.compareUnsigned(c1.key, c2.key))
+                .toArray(Change[]::new);
+
+        try (TableWriter w = new TableWriter(f, blockSize)) {
+            int[] next = {0};
+            Table t = table;
+            if(t != null) {
+                t.forEach((key, id) -> {
+                    while (next[0] < changes.length && Arrays.compareUnsigned(changes[next[0]].key, key) < 0)
+                        w.add(changes[next[0]++]);
+
+                    if(next[0] < changes.length && Arrays.equals(changes[next[0]].key, key))
+                        return;
+
+                    w.add(new Change(key, id));
+                });
+            }
+
+            while (next[0] < changes.length)
+                w.add(changes[next[0]++]);
+        }
+    }
+
+    private record Change(byte[] key, long id) {
+    }
+
+    private interface EntryConsumer {
+        void accept(byte[] key, long id) throws IOException;
+    }
+
+    /**
+     * Immutable, memory mapped sorted string table.
+     */
+    private static class Table {
+
+        final ByteBuffer buffer;
+        final int count;
+        final int blockSize;
+        final int numBlocks;
+        final int offsetsPos;
+
+        private Table(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new IOException("Invalid label index");
+
+            count = buffer.getInt(8);
+            blockSize = buffer.getInt(12);
+            numBlocks = buffer.getInt(16);
+            offsetsPos = (int) buffer.getLong(20);
+        }
+
+        static Table open(File f) throws IOException {
+            try (FileChannel channel = FileChannel.open(f.toPath(), READ)) {
+                if(channel.size() > Integer.MAX_VALUE)
+                    throw new IOException("Label index exceeds the maximum size of a mapping");
+
+                MappedByteBuffer buffer = channel.map(READ_ONLY, 0, channel.size());
+                return new Table(buffer);
+            }
+        }
+
+        int blockOffset(int block) {
+            return buffer.getInt(offsetsPos + (block * Integer.BYTES));
+        }
+
+        Long find(byte[] key) {
+            if(numBlocks == 0)
+                return null;
+
+            int block = findBlock(key);
+            if(block < 0)
+                return null;
+
+            Cursor c = new Cursor(buffer, blockOffset(block));
+            byte[] current = new byte[Math.max(key.length, 16)];
+            int entries = Math.min(blockSize, count - (block * blockSize));
+            for(int i = 0; i < entries; i++) {
+                int shared = c.readVarInt();
+                int suffixLength = c.readVarInt();
+                int length = shared + suffixLength;
+                if(length > current.length)
+                    current = Arrays.copyOf(current, Math.max(length, current.length << 1));
+
+                c.read(current, shared, suffixLength);
+                long id = c.readVarLong();
+
+                int r = Arrays.compareUnsigned(current, 0, length, key, 0, key.length);
+                if(r == 0)
+                    return id;
+                if(r > 0)
+                    return null;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the last block whose first label is less than or equal to the key.
+         */
+        private int findBlock(byte[] key) {
+            int lo = 0;
+            int hi = numBlocks - 1;
+            int result = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if(compareFirstKey(mid, key) <= 0) {
+                    result = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        private int compareFirstKey(int block, byte[] key) {
+            Cursor c = new Cursor(buffer, blockOffset(block));
+            c.readVarInt();
+            int length = c.readVarInt();
+
+            int n = Math.min(length, key.length);
+            for(int i = 0; i < n; i++) {
+                int r = Integer.compare(buffer.get(c.pos + i) & 0xFF, key[i] & 0xFF);
+                if(r != 0)
+                    return r;
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        void forEach(EntryConsumer consumer) throws IOException {
+            Cursor c = new Cursor(buffer, HEADER_SIZE);
+            byte[] current = new byte[16];
+            for(int i = 0; i < count; i++) {
+                int shared = c.readVarInt();
+                int suffixLength = c.readVarInt();
+                int length = shared + suffixLength;
+                if(length > current.length)
+                    current = Arrays.copyOf(current, Math.max(length, current.length << 1));
+
+                c.read(current, shared, suffixLength);
+                consumer.accept(Arrays.copyOf(current, length), c.readVarLong());
+            }
+        }
+    }
+
+    private static class Cursor {
+
+        final ByteBuffer buffer;
+        int pos;
+
+        Cursor(ByteBuffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long v = 0;
+            for(int shift = 0; ; shift += 7) {
+                int b = buffer.get(pos++);
+                v |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0)
+                    return v;
+            }
+        }
+
+        void read(byte[] dst, int offset, int length) {
+            buffer.get(pos, dst, offset, length);
+            pos += length;
+        }
+    }
+
+    private static class TableWriter implements Closeable {
+
+        private final File file;
+        private final int blockSize;
+        private final DataOutputStream out;
+
+        private int count;
+        private int[] blockOffsets = new int[64];
+        private byte[] previous = new byte[0];
+
+        TableWriter(File file, int blockSize) throws IOException {
+            this.file = file;
+            this.blockSize = blockSize;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        void add(Change c) throws IOException {
+            if(c.id == REMOVED)
+                return;
+
+            byte[] key = c.key;
+
+            int shared = 0;
+            if(count % blockSize == 0) {
+                int block = count / blockSize;
+                if(block == blockOffsets.length)
+                    blockOffsets = Arrays.copyOf(blockOffsets, block << 1);
+
+                blockOffsets[block] = out.size();
+            } else {
+                int n = Math.min(previous.length, key.length);
+                while (shared < n && previous[shared] == key[shared])
+                    shared++;
+            }
+
+            writeVarInt(out, shared);
+            writeVarInt(out, key.length - shared);
+            out.write(key, shared, key.length - shared);
+            writeVarLong(out, c.id);
+
+            if(out.size() == Integer.MAX_VALUE)
+                throw new IOException("Label index exceeds the maximum size of a mapping");
+
+            previous = key;
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            int numBlocks = (count + blockSize - 1) / blockSize;
+            int offsetsPos = out.size();
+            for(int i = 0; i < numBlocks; i++)
+                out.writeInt(blockOffsets[i]);
+            out.close();
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.writeInt(MAGIC);
+                raf.writeInt(VERSION);
+                raf.writeInt(count);
+                raf.writeInt(blockSize);
+                raf.writeInt(numBlocks);
+                raf.writeLong(offsetsPos);
+                raf.getFD().sync();
+            }
+        }
+    }
+}
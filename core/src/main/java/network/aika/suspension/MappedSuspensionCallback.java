@@ -0,0 +1,631 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import network.aika.Model;
+import network.aika.exceptions.MissingNeuronException;
+import network.aika.utils.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Stores suspended neurons in a sequence of append-only segment files that are mapped into memory.
+ * In contrast to the {@code FSSuspensionCallback}, retrieving a neuron does not require a lock or a
+ * system call, since the data is answered as a read-only slice of the mapped segment. Once the active
+ * segment is full, a new segment is started.
+ *
+ * Since segments are append-only, every save of a modified neuron leaves its previous record behind.
+ * The {@link #compact()} method rewrites the live records of sparsely used segments into a new segment and
+ * retires the old ones, while retrievals continue to be served.
+ *
+ * Like the {@code FSSuspensionCallback}, all changes of the index are recorded in an {@link IndexJournal}
+ * and the full index is only written as a periodic checkpoint.
+ *
+ * @author Lukas Molzberger
+ */
+public class MappedSuspensionCallback implements SuspensionCallback {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedSuspensionCallback.class);
+
+    public static String MODEL = "model";
+    public static String INDEX = "index";
+    public static String JOURNAL = "journal";
+    public static String LABELS = "labels";
+
+    public static int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    public static double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+    private static final int SEGMENT_ID = 0;
+    private static final int OFFSET = 1;
+    private static final int LENGTH = 2;
+
+    private AtomicLong currentId = new AtomicLong(0);
+    private long currentSegmentId = 0;
+
+    private LabelIndex labels = new HashLabelIndex();
+    private Map<Long, long[]> index = new ConcurrentHashMap<>();
+
+    private Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private Map<Long, Integer> segmentLengths = new TreeMap<>();
+    private Segment activeSegment;
+
+    private Path path;
+    private String modelLabel;
+
+    private int segmentSize;
+    private double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    private final AtomicBoolean compactionRunning = new AtomicBoolean(false);
+
+    private Model model;
+    private IndexJournal journal;
+    private int checkpointInterval = IndexJournal.DEFAULT_CHECKPOINT_INTERVAL;
+
+    private boolean readOnly;
+
+    public MappedSuspensionCallback(Path path, String modelLabel, boolean readOnly) {
+        this(path, modelLabel, DEFAULT_SEGMENT_SIZE, readOnly);
+    }
+
+    public MappedSuspensionCallback(Path path, String modelLabel, int segmentSize, boolean readOnly) {
+        this.path = path;
+        this.modelLabel = modelLabel;
+        this.segmentSize = segmentSize;
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public void prepareNewModel() throws IOException {
+        if(readOnly)
+            return;
+
+        Files.createDirectories(path);
+        for(File f: getSegmentFiles())
+            f.delete();
+
+        File indexFile = getFile(INDEX);
+        if(indexFile.exists())
+            indexFile.delete();
+
+        File journalFile = getFile(JOURNAL);
+        if(journalFile.exists())
+            journalFile.delete();
+
+        labels.clear();
+
+        segmentLengths.clear();
+        currentSegmentId = 0;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public LabelIndex getLabelIndex() {
+        return labels;
+    }
+
+    public void setLabelIndex(LabelIndex labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * Keeps the labels in a memory mapped {@link MappedLabelIndex} instead of on the heap.
+     */
+    public void useMappedLabelIndex() throws IOException {
+        setLabelIndex(new MappedLabelIndex(getFile(LABELS), readOnly));
+    }
+
+    @Override
+    public void open(Model m) throws IOException {
+        model = m;
+
+        if(!readOnly) {
+            journal = new IndexJournal(getFile(JOURNAL));
+            journal.open();
+        }
+
+        for(Map.Entry<Long, Integer> me: segmentLengths.entrySet()) {
+            Segment s = Segment.open(
+                    me.getKey(),
+                    getSegmentFile(me.getKey()),
+                    me.getValue(),
+                    readOnly
+            );
+            segments.put(s.getId(), s);
+        }
+    }
+
+    @Override
+    public void close(Model model) throws IOException {
+        saveIndex(model);
+
+        if(journal != null)
+            journal.close();
+
+        for(Segment s: segments.values())
+            s.close();
+
+        segments.clear();
+        activeSegment = null;
+    }
+
+    @Override
+    public long createId() {
+        return currentId.addAndGet(1);
+    }
+
+    @Override
+    public synchronized void store(Long id, String label, Writable customData, byte[] data) throws IOException {
+        if(readOnly)
+            return;
+
+        Segment s = getWritableSegment(data.length);
+        int offset = s.append(data);
+
+        long[] pos = new long[]{s.getId(), offset, data.length};
+        index.put(id, pos);
+
+        journal.logStore(id, pos);
+        checkCheckpoint();
+    }
+
+    /**
+     * Appends all neurons of the batch to the active segments and journals them with a single flush.
+     */
+    @Override
+    public synchronized void storeBatch(List<SaveRequest> batch) throws IOException {
+        if(readOnly || batch.isEmpty())
+            return;
+
+        Map<Long, long[]> positions = new LinkedHashMap<>();
+        for(SaveRequest r: batch) {
+            Segment s = getWritableSegment(r.data().length);
+            int offset = s.append(r.data());
+            positions.put(r.id(), new long[]{s.getId(), offset, r.data().length});
+        }
+
+        index.putAll(positions);
+
+        journal.logStores(positions);
+        checkCheckpoint();
+    }
+
+    private Segment getWritableSegment(int length) throws IOException {
+        if(activeSegment != null && activeSegment.hasCapacity(length))
+            return activeSegment;
+
+        if(activeSegment != null)
+            activeSegment.force();
+
+        activeSegment = createSegment(Math.max(segmentSize, length));
+        segments.put(activeSegment.getId(), activeSegment);
+
+        return activeSegment;
+    }
+
+    private synchronized Segment createSegment(int capacity) throws IOException {
+        long segmentId = ++currentSegmentId;
+        return Segment.create(
+                segmentId,
+                getSegmentFile(segmentId),
+                capacity
+        );
+    }
+
+    @Override
+    public synchronized void remove(Long id) throws IOException {
+        index.remove(id);
+
+        if(journal != null) {
+            journal.logRemove(id);
+            checkCheckpoint();
+        }
+    }
+
+    @Override
+    public byte[] retrieve(Long id) throws IOException {
+        ByteBuffer buffer = retrieveBuffer(id);
+
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Override
+    public ByteBuffer retrieveBuffer(Long id) {
+        long[] pos = index.get(id);
+        while(true) {
+            if (pos == null)
+                throw new MissingNeuronException(id, modelLabel);
+
+            Segment s = segments.get(pos[SEGMENT_ID]);
+            if (s != null)
+                return s.slice((int) pos[OFFSET], (int) pos[LENGTH]);
+
+            // The segment might just have been retired by a compaction, in which case the index already points
+            // to the new location. Otherwise the segment is gone, e.g. because the callback has been closed.
+            long[] currentPos = index.get(id);
+            if (currentPos == pos)
+                throw new MissingNeuronException(id, modelLabel);
+
+            pos = currentPos;
+        }
+    }
+
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Runs {@link #compact()} on a background thread.
+     *
+     * @return the number of reclaimed bytes
+     */
+    public CompletableFuture<Long> compactInBackground() {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            try {
+                result.complete(compact());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, "aika-compaction-" + modelLabel);
+        t.setDaemon(true);
+        t.start();
+        return result;
+    }
+
+    /**
+     * Copies the live records of all sealed segments whose ratio of live bytes is below the compaction
+     * threshold into new segments and afterwards retires the old segments. Records that are stored or
+     * removed concurrently are left untouched, since the index is only updated if it still points to the
+     * copied record. Retrievals are not blocked.
+     *
+     * @return the number of reclaimed bytes
+     */
+    public long compact() throws IOException {
+        if(readOnly || !compactionRunning.compareAndSet(false, true))
+            return 0;
+
+        try {
+            Map<Long, List<Map.Entry<Long, long[]>>> liveEntries = collectLiveEntries();
+
+            List<Segment> candidates = new ArrayList<>();
+            long liveBytes = 0;
+            long reclaimed = 0;
+            for(Segment s: getSealedSegments()) {
+                List<Map.Entry<Long, long[]>> entries = liveEntries.getOrDefault(s.getId(), Collections.emptyList());
+                long segLiveBytes = getLength(entries);
+                if(segLiveBytes >= compactionThreshold * s.getLength())
+                    continue;
+
+                if(liveBytes + segLiveBytes > segmentSize && !candidates.isEmpty()) {
+                    reclaimed += compact(candidates, liveEntries, liveBytes);
+                    candidates.clear();
+                    liveBytes = 0;
+                }
+                candidates.add(s);
+                liveBytes += segLiveBytes;
+            }
+
+            if(!candidates.isEmpty())
+                reclaimed += compact(candidates, liveEntries, liveBytes);
+
+            log.info("Compaction of model " + modelLabel + " reclaimed " + reclaimed + " bytes.");
+            return reclaimed;
+        } finally {
+            compactionRunning.set(false);
+        }
+    }
+
+    private long compact(List<Segment> candidates, Map<Long, List<Map.Entry<Long, long[]>>> liveEntries, long liveBytes) throws IOException {
+        Segment target = liveBytes > 0 ?
+                createSegment((int) liveBytes) :
+                null;
+
+        Map<Long, long[][]> moved = new HashMap<>();
+        for(Segment s: candidates) {
+            for(Map.Entry<Long, long[]> me: liveEntries.getOrDefault(s.getId(), Collections.emptyList())) {
+                long[] oldPos = me.getValue();
+                ByteBuffer data = s.slice((int) oldPos[OFFSET], (int) oldPos[LENGTH]);
+
+                byte[] record = new byte[data.remaining()];
+                data.get(record);
+
+                int offset = target.append(record);
+                moved.put(me.getKey(), new long[][] {oldPos, {target.getId(), offset, record.length}});
+            }
+        }
+
+        if(target != null)
+            target.force();
+
+        long reclaimed = 0;
+        synchronized (this) {
+            if(target != null)
+                segments.put(target.getId(), target);
+
+            for(Map.Entry<Long, long[][]> me: moved.entrySet()) {
+                if(index.replace(me.getKey(), me.getValue()[0], me.getValue()[1]))
+                    journal.logStore(me.getKey(), me.getValue()[1]);
+            }
+
+            for(Segment s: candidates) {
+                segments.remove(s.getId());
+                reclaimed += s.getLength();
+            }
+        }
+
+        // The relocated entries have to be durable, before the old segments can be deleted. Otherwise a replay of
+        // the journal after a crash could restore entries that point to the deleted segment files.
+        journal.sync();
+
+        for(Segment s: candidates) {
+            s.close();
+            s.getFile().delete();
+        }
+
+        return reclaimed - liveBytes;
+    }
+
+    private synchronized List<Segment> getSealedSegments() {
+        return segments.values()
+                .stream()
+                .filter(s -> s != activeSegment)
+                .sorted(Comparator.comparingLong(Segment::getId))
+                .toList();
+    }
+
+    private Map<Long, List<Map.Entry<Long, long[]>>> collectLiveEntries() {
+        Map<Long, List<Map.Entry<Long, long[]>>> liveEntries = new HashMap<>();
+        for(Map.Entry<Long, long[]> me: index.entrySet()) {
+            liveEntries.computeIfAbsent(me.getValue()[SEGMENT_ID], sid -> new ArrayList<>())
+                    .add(Map.entry(me.getKey(), me.getValue()));
+        }
+        return liveEntries;
+    }
+
+    private static long getLength(List<Map.Entry<Long, long[]>> entries) {
+        long length = 0;
+        for(Map.Entry<Long, long[]> me: entries)
+            length += me.getValue()[LENGTH];
+        return length;
+    }
+
+    @Override
+    public Collection<Long> getAllIds() {
+        return index.keySet();
+    }
+
+    @Override
+    public Long getIdByLabel(String label) {
+        return labels.get(label);
+    }
+
+    @Override
+    public synchronized void putLabel(String label, Long id) {
+        labels.put(label, id);
+
+        if(journal != null) {
+            try {
+                journal.logPutLabel(label, id);
+                checkCheckpoint();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeLabel(String label) {
+        if (label == null)
+            return;
+
+        labels.remove(label);
+
+        if(journal != null) {
+            try {
+                journal.logRemoveLabel(label);
+                checkCheckpoint();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void loadIndex(Model m) {
+        File indexFile = getFile(INDEX);
+        if(indexFile.exists()) {
+            try (FileInputStream fis = new FileInputStream(indexFile);
+                 ByteArrayInputStream bais = new ByteArrayInputStream(fis.readAllBytes());
+                 DataInputStream dis = new DataInputStream(bais)) {
+                m.readFields(dis, m);
+                readIndex(dis);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        try {
+            IndexJournal.replay(getFile(JOURNAL), new IndexJournal.Listener() {
+                @Override
+                public void onStore(Long id, long[] pos) {
+                    index.put(id, pos);
+                    updateCurrentId(id);
+
+                    currentSegmentId = Math.max(currentSegmentId, pos[SEGMENT_ID]);
+                    segmentLengths.merge(pos[SEGMENT_ID], (int) (pos[OFFSET] + pos[LENGTH]), Math::max);
+                }
+
+                @Override
+                public void onRemove(Long id) {
+                    index.remove(id);
+                }
+
+                @Override
+                public void onPutLabel(String label, Long id) {
+                    labels.put(label, id);
+                    updateCurrentId(id);
+                }
+
+                @Override
+                public void onRemoveLabel(String label) {
+                    labels.remove(label);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        // Segments that have been retired by a compaction after the last checkpoint.
+        segmentLengths.keySet()
+                .removeIf(segmentId -> !getSegmentFile(segmentId).exists());
+    }
+
+    private void updateCurrentId(Long id) {
+        currentId.accumulateAndGet(id, Math::max);
+    }
+
+    private void checkCheckpoint() throws IOException {
+        if(model != null && journal.getNumberOfRecords() >= checkpointInterval)
+            saveIndex(model);
+    }
+
+    /**
+     * Writes a checkpoint of the full index and afterwards truncates the journal. The checkpoint is first
+     * written to a temporary file, which then atomically replaces the previous checkpoint.
+     */
+    @Override
+    public synchronized void saveIndex(Model m) {
+        if(readOnly)
+            return;
+
+        for(Segment s: segments.values())
+            s.force();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        File indexFile = getFile(INDEX);
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            m.write(dos);
+            writeIndex(dos);
+
+            try (FileOutputStream fos = new FileOutputStream(tmpFile)) {
+                fos.write(baos.toByteArray());
+                fos.getFD().sync();
+            }
+            Files.move(tmpFile.toPath(), indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+            if(journal != null)
+                journal.truncate();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int getNumberOfSegments() {
+        return segments.size();
+    }
+
+    private File getFile(String prefix) {
+        return new File(path.toFile(), prefix + "-" + modelLabel + ".dat");
+    }
+
+    private File getSegmentFile(long segmentId) {
+        return new File(path.toFile(), MODEL + "-" + modelLabel + "-" + segmentId + ".dat");
+    }
+
+    private File[] getSegmentFiles() {
+        String prefix = MODEL + "-" + modelLabel + "-";
+        File[] files = path.toFile().listFiles((dir, name) ->
+                name.startsWith(prefix) && name.endsWith(".dat")
+        );
+        return files != null ? files : new File[0];
+    }
+
+    private void readIndex(DataInput in) throws IOException {
+        currentId = new AtomicLong(in.readLong());
+        currentSegmentId = in.readLong();
+
+        segmentLengths.clear();
+        while(in.readBoolean()) {
+            Long segmentId = in.readLong();
+            segmentLengths.put(segmentId, in.readInt());
+        }
+
+        labels.readCheckpoint(in);
+
+        index.clear();
+        while(in.readBoolean()) {
+            Long id = in.readLong();
+            long[] pos = new long[3];
+            pos[SEGMENT_ID] = in.readLong();
+            pos[OFFSET] = in.readInt();
+            pos[LENGTH] = in.readInt();
+
+            index.put(id, pos);
+        }
+    }
+
+    private void writeIndex(DataOutput out) throws IOException {
+        out.writeLong(currentId.get());
+        out.writeLong(currentSegmentId);
+
+        for(Segment s: segments.values()) {
+            out.writeBoolean(true);
+            out.writeLong(s.getId());
+            out.writeInt(s.getLength());
+        }
+        out.writeBoolean(false);
+
+        labels.writeCheckpoint(out);
+
+        for(Map.Entry<Long, long[]> me: index.entrySet()) {
+            out.writeBoolean(true);
+            out.writeLong(me.getKey());
+            out.writeLong(me.getValue()[SEGMENT_ID]);
+            out.writeInt((int) me.getValue()[OFFSET]);
+            out.writeInt((int) me.getValue()[LENGTH]);
+        }
+        out.writeBoolean(false);
+    }
+}
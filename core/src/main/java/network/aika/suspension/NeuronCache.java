@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import network.aika.Model;
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.suspension.SuspensionMode.SAVE;
+
+/**
+ * The neuron cache bounds the number of neurons, or the estimated number of bytes, that are kept in
+ * memory. Whenever a neuron becomes resident, either because it has been created or reactivated, the cache
+ * checks its budget and suspends neurons according to the CLOCK policy: The resident neurons are kept in
+ * the order in which they became resident. A neuron that has been referenced since the hand of the clock
+ * last passed it gets a second chance and its retrieval count is refreshed, otherwise it is suspended.
+ *
+ * Permanent neurons and neurons that have activations in a thought are never suspended.
+ *
+ * @author Lukas Molzberger
+ */
+public class NeuronCache {
+
+    public static int DEFAULT_NEURON_SIZE = 1024;
+
+    private static class Entry {
+        NeuronProvider provider;
+        int size;
+
+        Entry(NeuronProvider provider, int size) {
+            this.provider = provider;
+            this.size = size;
+        }
+    }
+
+    private final Model model;
+
+    private int maxNeurons;
+    private long maxBytes;
+
+    private SuspensionMode suspensionMode = SAVE;
+
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+    private long residentBytes;
+
+    private long numberOfSuspensions;
+
+    /**
+     * @param maxNeurons the maximum number of resident neurons or zero if unbounded
+     * @param maxBytes the maximum estimated number of bytes of the resident neurons or zero if unbounded
+     */
+    public NeuronCache(Model model, int maxNeurons, long maxBytes) {
+        this.model = model;
+        this.maxNeurons = maxNeurons;
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxNeurons() {
+        return maxNeurons;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public SuspensionMode getSuspensionMode() {
+        return suspensionMode;
+    }
+
+    public NeuronCache setSuspensionMode(SuspensionMode suspensionMode) {
+        this.suspensionMode = suspensionMode;
+        return this;
+    }
+
+    public synchronized int getNumberOfResidentNeurons() {
+        return clock.size();
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized long getNumberOfSuspensions() {
+        return numberOfSuspensions;
+    }
+
+    /**
+     * The victims are only selected while holding the lock of the cache. They are suspended afterwards, so that
+     * other threads reactivating neurons do not have to wait for the neurons being saved. Since a victim might
+     * have been referenced again in the meantime, it is only suspended if it is still unused, otherwise it is
+     * returned to the clock.
+     */
+    public void add(NeuronProvider p) {
+        List<Entry> victims;
+        synchronized (this) {
+            if(p.isPermanent() || p.isCached())
+                return;
+
+            int size = p.getSerializedSize() > 0 ?
+                    p.getSerializedSize() :
+                    DEFAULT_NEURON_SIZE;
+
+            victims = evict(1, size);
+
+            p.setCached(true);
+            clock.addLast(new Entry(p, size));
+            residentBytes += size;
+        }
+
+        for(Entry v: victims) {
+            if(v.provider.suspendIfUnused(suspensionMode))
+                onSuspended();
+            else
+                retain(v);
+        }
+    }
+
+    private List<Entry> evict(int additionalNeurons, int additionalBytes) {
+        List<Entry> victims = new ArrayList<>();
+        int remainingChecks = 2 * clock.size();
+        while(!clock.isEmpty() && isOverBudget(additionalNeurons, additionalBytes) && remainingChecks-- > 0) {
+            Entry e = clock.pollFirst();
+            NeuronProvider p = e.provider;
+            Neuron n = p.getIfNotSuspended();
+
+            if(n == null || p.isPermanent()) {
+                remove(e);
+                continue;
+            }
+
+            if(n.resetReferenced() || n.isInUse()) {
+                n.updateRetrievalCount(model);
+                clock.addLast(e);
+                continue;
+            }
+
+            remove(e);
+            victims.add(e);
+        }
+        return victims;
+    }
+
+    private synchronized void onSuspended() {
+        numberOfSuspensions++;
+    }
+
+    /**
+     * Returns a victim that has been referenced again before it could be suspended to the clock.
+     */
+    private synchronized void retain(Entry e) {
+        if(e.provider.isCached())
+            return;
+
+        e.provider.setCached(true);
+        clock.addLast(e);
+        residentBytes += e.size;
+    }
+
+    private boolean isOverBudget(int additionalNeurons, int additionalBytes) {
+        return (maxNeurons > 0 && clock.size() + additionalNeurons > maxNeurons) ||
+                (maxBytes > 0 && residentBytes + additionalBytes > maxBytes);
+    }
+
+    private void remove(Entry e) {
+        e.provider.setCached(false);
+        residentBytes -= e.size;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.synapses.Synapse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The neuron prefetcher reactivates suspended neurons before the inference reaches them. Starting from a
+ * neuron, for instance the token neuron of a newly added token, it follows the output synapses up to
+ * {@code depth} hops and loads every suspended neuron it encounters on a pool of I/O threads. Since a
+ * neuron needs to be loaded before its own output synapses are known, each hop is expanded as soon as the
+ * load of the previous hop has completed. The whole walk runs on the I/O threads, the thread requesting the
+ * prefetch only submits it.
+ *
+ * A thought that touches a neuron while it is still being prefetched simply waits for that load to
+ * complete, instead of loading the neuron a second time.
+ *
+ * @author Lukas Molzberger
+ */
+public class NeuronPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NeuronPrefetcher.class);
+
+    private final int depth;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private int pending;
+
+    private final AtomicLong numberOfPrefetchedNeurons = new AtomicLong();
+    private final AtomicLong numberOfVisitedNeurons = new AtomicLong();
+
+    /**
+     * @param depth the number of synapse hops that are followed, starting from the prefetched neuron
+     * @param numberOfThreads the number of I/O threads
+     */
+    public NeuronPrefetcher(int depth, int numberOfThreads) {
+        this(depth, Executors.newFixedThreadPool(numberOfThreads, createThreadFactory()), true);
+    }
+
+    public NeuronPrefetcher(int depth, ExecutorService executor) {
+        this(depth, executor, false);
+    }
+
+    private NeuronPrefetcher(int depth, ExecutorService executor, boolean ownsExecutor) {
+        this.depth = depth;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "aika-prefetch-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNumberOfPrefetchedNeurons() {
+        return numberOfPrefetchedNeurons.get();
+    }
+
+    public long getNumberOfVisitedNeurons() {
+        return numberOfVisitedNeurons.get();
+    }
+
+    /**
+     * Schedules the walk starting from the given neuron on the I/O threads, so that the caller never traverses
+     * any synapses itself, even if all the neurons are resident.
+     */
+    public void prefetch(NeuronProvider p) {
+        Set<Long> visited = ConcurrentHashMap.newKeySet();
+        visited.add(p.getId());
+
+        submit(() -> visit(p, depth, visited));
+    }
+
+    private void submit(Runnable task) {
+        synchronized (this) {
+            pending++;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    taskDone();
+                }
+            });
+        } catch (RuntimeException e) {
+            taskDone();
+            throw e;
+        }
+    }
+
+    private void visit(NeuronProvider p, int hops, Set<Long> visited) {
+        try {
+            if(p.isSuspended() && !load(p))
+                return;
+
+            numberOfVisitedNeurons.incrementAndGet();
+            expand(p, hops, visited);
+        } catch (RuntimeException e) {
+            log.warn("Unable to prefetch neuron " + p.getId(), e);
+        }
+    }
+
+    /**
+     * @return false if the neuron is already being loaded by another prefetch, which then also expands it
+     */
+    private boolean load(NeuronProvider p) {
+        if(!inFlight.add(p.getId()))
+            return false;
+
+        try {
+            if(p.preload())
+                numberOfPrefetchedNeurons.incrementAndGet();
+        } finally {
+            inFlight.remove(p.getId());
+        }
+        return true;
+    }
+
+    /**
+     * Every neuron is visited at most once per prefetch. Resident neurons are expanded directly on the current
+     * I/O thread, while the loads of suspended neurons are distributed across the pool.
+     */
+    private void expand(NeuronProvider p, int hops, Set<Long> visited) {
+        if(hops <= 0)
+            return;
+
+        p.getOutputSynapses().forEach(s -> {
+            NeuronProvider op = s.getPOutput();
+            if(!visited.add(op.getId()))
+                return;
+
+            if(op.isSuspended())
+                submit(() -> visit(op, hops - 1, visited));
+            else
+                visit(op, hops - 1, visited);
+        });
+    }
+
+    private synchronized void taskDone() {
+        if(--pending == 0)
+            notifyAll();
+    }
+
+    /**
+     * Waits until all scheduled loads, including the hops that they discovered, have completed.
+     */
+    public synchronized void awaitIdle() throws InterruptedException {
+        while (pending > 0)
+            wait();
+    }
+
+    public void close() throws InterruptedException {
+        awaitIdle();
+
+        if(ownsExecutor) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -14,34 +14,14 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.text;
+package network.aika.suspension;
 
-import network.aika.elements.activations.TokenActivation;
+import network.aika.utils.Writable;
 
 /**
+ * A serialized neuron waiting to be written to the suspension store.
  *
  * @author Lukas Molzberger
  */
-public class RangeKey {
-
-    private Range range;
-    private int actId;
-
-    public RangeKey(Range range, int actId) {
-        this.range = range;
-        this.actId = actId;
-    }
-
-    public RangeKey(TokenActivation tokenAct) {
-        this.range = tokenAct.getRange();
-        this.actId = tokenAct.getId();
-    }
-
-    public Range getRange() {
-        return range;
-    }
-
-    public int getActId() {
-        return actId;
-    }
+public record SaveRequest(Long id, String label, Writable customData, byte[] data) {
 }
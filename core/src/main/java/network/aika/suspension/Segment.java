@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A single append-only model file that is mapped into memory as a whole. New records are copied into the
+ * mapping at the current write position, while readers obtain independent read-only slices of the mapping.
+ *
+ * @author Lukas Molzberger
+ */
+public class Segment {
+
+    private final long id;
+    private final File file;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private final boolean writable;
+    private volatile int writePos;
+
+    private Segment(long id, File file, boolean writable) {
+        this.id = id;
+        this.file = file;
+        this.writable = writable;
+    }
+
+    public static Segment create(long id, File file, int capacity) throws IOException {
+        Segment s = new Segment(id, file, true);
+        s.channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE);
+        s.buffer = s.channel.map(READ_WRITE, 0, capacity);
+        return s;
+    }
+
+    public static Segment open(long id, File file, int length, boolean readOnly) throws IOException {
+        Segment s = new Segment(id, file, !readOnly);
+        s.channel = readOnly ?
+                FileChannel.open(file.toPath(), READ) :
+                FileChannel.open(file.toPath(), READ, WRITE);
+
+        s.buffer = s.channel.map(readOnly ? READ_ONLY : READ_WRITE, 0, length);
+        s.writePos = length;
+        return s;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getLength() {
+        return writePos;
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public boolean hasCapacity(int length) {
+        return writable && buffer.capacity() - writePos >= length;
+    }
+
+    /**
+     * Appends the record and returns its offset within this segment. Only a single writer may append at
+     * a time, readers never observe a partially written record as long as the offset is published after
+     * this method returns.
+     */
+    public int append(byte[] data) {
+        int offset = writePos;
+        buffer.put(offset, data);
+        writePos = offset + data.length;
+        return offset;
+    }
+
+    public ByteBuffer slice(int offset, int length) {
+        return buffer
+                .slice(offset, length)
+                .asReadOnlyBuffer();
+    }
+
+    public void force() {
+        if(writable)
+            buffer.force();
+    }
+
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    public String toString() {
+        return "Segment " + id + " (" + writePos + "/" + buffer.capacity() + ") " + file.getName();
+    }
+}
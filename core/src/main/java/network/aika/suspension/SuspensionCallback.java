@@ -20,7 +20,9 @@ import network.aika.Model;
 import network.aika.utils.Writable;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.List;
 
 /**
  *
@@ -35,7 +37,7 @@ public interface SuspensionCallback {
 
     void prepareNewModel() throws IOException;
 
-    void open() throws IOException;
+    void open(Model m) throws IOException;
 
     void close(Model model) throws IOException;
 
@@ -43,10 +45,28 @@ public interface SuspensionCallback {
 
     void store(Long id, String label, Writable customData, byte[] data) throws IOException;
 
+    /**
+     * Stores several neurons at once. Implementations should override this method if they are able to
+     * group the writes of a batch.
+     */
+    default void storeBatch(List<SaveRequest> batch) throws IOException {
+        for(SaveRequest r: batch)
+            store(r.id(), r.label(), r.customData(), r.data());
+    }
+
     void remove(Long id) throws IOException;
 
     byte[] retrieve(Long id) throws IOException;
 
+    /**
+     * Returns the stored neuron as a read-only buffer. Implementations that are able to answer a
+     * retrieval without copying the data, like the {@code MappedSuspensionCallback}, should override this method.
+     */
+    default ByteBuffer retrieveBuffer(Long id) throws IOException {
+        return ByteBuffer.wrap(retrieve(id))
+                .asReadOnlyBuffer();
+    }
+
     Collection<Long> getAllIds();
 
 
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.suspension;
+
+import network.aika.elements.neurons.*;
+import network.aika.elements.synapses.*;
+import network.aika.utils.CompactEncoding;
+import network.aika.utils.LegacyDataInput;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Dictionary of the neuron and synapse classes that can be serialized. Registered classes are written as
+ * a varint type id and instantiated through their supplier. Classes that are not registered are written
+ * by their class name and instantiated through a cached constructor handle.
+ *
+ * The type ids are part of the serialized format and must therefore never be reassigned. Application
+ * specific classes should use ids starting at {@link #FIRST_CUSTOM_TYPE_ID}.
+ *
+ * @author Lukas Molzberger
+ */
+public class TypeRegistry {
+
+    public static final int FIRST_CUSTOM_TYPE_ID = 64;
+
+    private static final int UNREGISTERED = 0;
+
+    private final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+    private final Map<Integer, Supplier<?>> suppliers = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<?>> suppliersByName = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<?>> unregisteredSuppliers = new ConcurrentHashMap<>();
+
+    public TypeRegistry() {
+        register(1, BindingCategoryNeuron.class, BindingCategoryNeuron::new);
+        register(2, BindingNeuron.class, BindingNeuron::new);
+        register(3, CharPositionRelationNeuron.class, CharPositionRelationNeuron::new);
+        register(4, PatternCategoryNeuron.class, PatternCategoryNeuron::new);
+        register(5, PatternNeuron.class, PatternNeuron::new);
+        register(6, TokenNeuron.class, TokenNeuron::new);
+        register(7, TokenPositionRelationNeuron.class, TokenPositionRelationNeuron::new);
+        // The identity reference is restored by readFields
+        register(8, InhibitoryNeuron.class, () -> new InhibitoryNeuron(null));
+
+        register(32, BindingCategoryInputSynapse.class, BindingCategoryInputSynapse::new);
+        register(33, BindingCategorySynapse.class, BindingCategorySynapse::new);
+        register(34, InhibitoryCategoryInputSynapse.class, InhibitoryCategoryInputSynapse::new);
+        register(35, InhibitoryCategorySynapse.class, InhibitoryCategorySynapse::new);
+        register(36, InhibitorySynapse.class, InhibitorySynapse::new);
+        register(37, InputPatternSynapse.class, InputPatternSynapse::new);
+        register(38, NegativeFeedbackSynapse.class, NegativeFeedbackSynapse::new);
+        register(39, PatternCategoryInputSynapse.class, PatternCategoryInputSynapse::new);
+        register(40, PatternCategorySynapse.class, PatternCategorySynapse::new);
+        register(41, PatternSynapse.class, PatternSynapse::new);
+        register(42, PositiveFeedbackSynapse.class, PositiveFeedbackSynapse::new);
+        register(43, RelationInputSynapse.class, RelationInputSynapse::new);
+        register(44, ReversePatternSynapse.class, ReversePatternSynapse::new);
+        register(45, SamePatternSynapse.class, SamePatternSynapse::new);
+    }
+
+    public <T> void register(int typeId, Class<T> clazz, Supplier<? extends T> supplier) {
+        if(typeId <= UNREGISTERED)
+            throw new IllegalArgumentException("Type ids must be positive: " + typeId);
+
+        Supplier<?> existing = suppliers.putIfAbsent(typeId, supplier);
+        if(existing != null)
+            throw new IllegalArgumentException("Type id " + typeId + " is already registered");
+
+        typeIds.put(clazz, typeId);
+        suppliersByName.put(clazz.getName(), supplier);
+    }
+
+    public void writeType(DataOutput out, Object o) throws IOException {
+        Integer typeId = typeIds.get(o.getClass());
+        if(typeId != null) {
+            CompactEncoding.writeVarInt(out, typeId);
+        } else {
+            CompactEncoding.writeVarInt(out, UNREGISTERED);
+            out.writeUTF(o.getClass().getName());
+        }
+    }
+
+    public Object readInstance(DataInput in) throws IOException {
+        if(in instanceof LegacyDataInput)
+            return newInstance(in.readUTF());
+
+        int typeId = CompactEncoding.readVarInt(in);
+        if(typeId == UNREGISTERED)
+            return newInstance(in.readUTF());
+
+        Supplier<?> supplier = suppliers.get(typeId);
+        if(supplier == null)
+            throw new IOException("Unknown type id: " + typeId);
+
+        return supplier.get();
+    }
+
+    public Object newInstance(String clazzName) {
+        Supplier<?> supplier = suppliersByName.get(clazzName);
+        if(supplier != null)
+            return supplier.get();
+
+        return unregisteredSuppliers
+                .computeIfAbsent(clazzName, this::createSupplier)
+                .get();
+    }
+
+    private Supplier<?> createSupplier(String clazzName) {
+        try {
+            Class<?> clazz = getClass().getClassLoader().loadClass(clazzName);
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(clazz, MethodType.methodType(void.class));
+
+            return () -> {
+                try {
+                    return constructor.invoke();
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import network.aika.elements.activations.TokenActivation;
 import network.aika.elements.neurons.TokenNeuron;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static network.aika.elements.Timestamp.MIN;
@@ -34,22 +35,20 @@ import static network.aika.elements.Timestamp.NOT_SET;
  * The {@code Document} class represents a single document which may be either used for processing a text or as
  * training input. A document consists of the raw text, the interpretations and the activations.
  *
+ * Long inputs can be streamed into a document by appending the text chunk by chunk. If a window size is set,
+ * {@link #slideWindow()} retires all activations that ended before the window and drops the text that is no
+ * longer referenced. All positions remain absolute positions within the whole input.
+ *
  * @author Lukas Molzberger
  */
 public class Document extends Thought {
 
     private final StringBuilder content;
+    private int contentOffset;
 
-    private NavigableMap<PositionKey, TokenActivation> tokenPosIndex = new TreeMap<>(Comparator
-            .<PositionKey>comparingInt(pk -> pk.getTokenPosition())
-            .thenComparingInt(pk -> pk.getActId())
-    );
+    private int windowSize;
 
-    private NavigableMap<RangeKey, TokenActivation> rangeIndex = new TreeMap<>(Comparator
-            .<RangeKey>comparingLong(rk -> rk.getRange().getBegin())
-            .thenComparingLong(rk -> -rk.getRange().getEnd())
-            .thenComparingInt(rk -> rk.getActId())
-    );
+    private final TokenIndex tokenIndex = new TokenIndex();
 
 
     public Document(Model model, String content) {
@@ -61,25 +60,16 @@ public class Document extends Thought {
     }
 
     public void registerTokenActivation(TokenActivation tokenAct) {
-        if(tokenAct.getTokenPos() != null)
-            tokenPosIndex.put(new PositionKey(tokenAct), tokenAct);
-
-        if(tokenAct.getRange() != null)
-            rangeIndex.put(new RangeKey(tokenAct), tokenAct);
+        tokenIndex.add(tokenAct);
     }
 
-    public Stream<TokenActivation> getRelatedTokensByTokenPosition(TokenActivation fromTokenAct, int relFrom, int relTo) {
-        return tokenPosIndex.subMap(
-                new PositionKey(fromTokenAct.getTokenPos() + relFrom, Integer.MIN_VALUE),
-                new PositionKey(fromTokenAct.getTokenPos() + relTo, Integer.MAX_VALUE)
-        ).values().stream();
+    public void getRelatedTokensByTokenPosition(TokenActivation fromTokenAct, int relFrom, int relTo, Consumer<TokenActivation> c) {
+        int pos = fromTokenAct.getTokenPos();
+        tokenIndex.forEachByTokenPosition(pos + relFrom, pos + relTo, c);
     }
 
-    public Stream<TokenActivation> getRelatedTokensByCharPosition(Range fromRange, Range toRange) {
-        return rangeIndex.subMap(
-                new RangeKey(fromRange, Integer.MIN_VALUE),
-                new RangeKey(toRange, Integer.MAX_VALUE)
-        ).values().stream();
+    public void getRelatedTokensByCharPosition(Range fromRange, Range toRange, Consumer<TokenActivation> c) {
+        tokenIndex.forEachByCharPosition(fromRange, toRange, c);
     }
 
     public void append(String txt) {
@@ -87,23 +77,128 @@ public class Document extends Thought {
     }
 
     public char charAt(int i) {
-        return content.charAt(i);
+        return content.charAt(i - contentOffset);
     }
 
+    /**
+     * Returns the retained text, which starts at the position {@link #getContentOffset()}.
+     */
     public String getContent() {
         return content.toString();
     }
 
+    public int getContentOffset() {
+        return contentOffset;
+    }
+
     public int length() {
-        return content.length();
+        return contentOffset + content.length();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the number of characters at the end of the document, whose activations are kept by
+     * {@link #slideWindow()}. A window size of zero, the default, retains the whole document.
+     *
+     * Activations without a range are retired together with the activations they are linked to. Activations that
+     * have neither a range nor any links are not reachable from the window and are kept until the document is
+     * disconnected.
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public void slideWindow() {
+        if(windowSize <= 0)
+            return;
+
+        retireBefore(length() - windowSize);
+    }
+
+    /**
+     * Retires all activations whose range ends at or before the given position and drops the text that is not
+     * covered by any of the remaining activations anymore. Activations without a range are retired, once all the
+     * activations they are linked to are retired.
+     *
+     * Since the range of an activation is joined from the ranges of its linked activations, the retired
+     * activations are found by walking the links outwards from the tokens ending before the given position. The
+     * walk stops at activations that extend beyond it.
+     */
+    public void retireBefore(int pos) {
+        if(pos <= contentOffset)
+            return;
+
+        Set<Activation<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Activation<?>> queue = new ArrayDeque<>();
+        long[] keepFrom = new long[] {pos};
+
+        tokenIndex.forEachBeginningBefore(pos, tAct -> {
+            Range r = tAct.getRange();
+            if(r.getEnd() <= pos) {
+                visited.add(tAct);
+                queue.add(tAct);
+            } else
+                keepFrom[0] = Math.min(keepFrom[0], r.getBegin());
+        });
+
+        Set<Activation<?>> retired = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Activation<?>> unranged = new ArrayList<>();
+        while(!queue.isEmpty()) {
+            Activation<?> act = queue.poll();
+            Range r = act.getRange();
+            if(r == null) {
+                unranged.add(act);
+            } else if(r.getEnd() <= pos) {
+                retired.add(act);
+            } else {
+                keepFrom[0] = Math.min(keepFrom[0], r.getBegin());
+                continue;
+            }
+
+            getLinkedActivations(act)
+                    .filter(visited::add)
+                    .forEach(queue::add);
+        }
+
+        boolean changed = true;
+        while(changed) {
+            changed = unranged.removeIf(act -> {
+                boolean allRetired = getLinkedActivations(act)
+                        .allMatch(retired::contains);
+                if(allRetired)
+                    retired.add(act);
+                return allRetired;
+            });
+        }
+
+        retired.stream()
+                .filter(act -> act instanceof TokenActivation)
+                .forEach(act -> tokenIndex.remove((TokenActivation) act));
+
+        retire(retired);
+
+        int newOffset = (int) Math.max(keepFrom[0], contentOffset);
+        content.delete(0, newOffset - contentOffset);
+        contentOffset = newOffset;
+    }
+
+    private static Stream<Activation<?>> getLinkedActivations(Activation<?> act) {
+        return Stream.concat(
+                        act.getInputLinks().map(l -> (Activation<?>) l.getInput()),
+                        act.getOutputLinks().map(l -> (Activation<?>) l.getOutput())
+                )
+                .filter(Objects::nonNull);
     }
 
     public String getTextSegment(Range range) {
         if(range == null)
             return "";
 
-        Range r = range.limit(new Range(0, length()));
-        return content.substring((int) r.getBegin(), (int) r.getEnd());
+        Range r = range.limit(new Range(contentOffset, length()));
+        return content.substring((int) r.getBegin() - contentOffset, (int) r.getEnd() - contentOffset);
     }
 
     public static String getText(Activation<?> act) {
@@ -111,6 +206,7 @@ public class Document extends Thought {
     }
 
     public TokenActivation addToken(TokenNeuron n, Integer pos, int begin, int end) {
+        getModel().prefetch(n.getProvider());
         return new TokenActivation(createActivationId(), pos, begin, end, this, n);
     }
 
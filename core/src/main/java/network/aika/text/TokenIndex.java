@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.elements.activations.TokenActivation;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Index of the token activations of a document, used to evaluate the latent relations between tokens.
+ *
+ * The token positions are indexed by a dense array of slots, so that a lookup of a position is a single array
+ * access. Each slot holds the tokens at that position, ordered by their activation id. If the leading slots
+ * become empty, because the tokens of a streamed document have been retired, the array is shifted instead of
+ * being grown.
+ *
+ * The char ranges are indexed by an array that is sorted by the begin of the range, the end of the range in
+ * descending order and the activation id. Queries are answered by a binary search.
+ *
+ * Neither of the queries allocates any objects. Instead, the matching tokens are handed to a consumer.
+ *
+ * @author Lukas Molzberger
+ */
+public class TokenIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private TokenActivation[][] slots = new TokenActivation[INITIAL_CAPACITY][];
+    private int posOffset;
+    private int maxPos = -1;
+
+    private long[] begins = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private TokenActivation[] byRange = new TokenActivation[INITIAL_CAPACITY];
+    private int rangeSize;
+
+    public void add(TokenActivation tokenAct) {
+        if(tokenAct.getTokenPos() != null)
+            addByPosition(tokenAct.getTokenPos(), tokenAct);
+
+        if(tokenAct.getRange() != null)
+            addByRange(tokenAct.getRange(), tokenAct);
+    }
+
+    public void remove(TokenActivation tokenAct) {
+        if(tokenAct.getTokenPos() != null)
+            removeByPosition(tokenAct.getTokenPos(), tokenAct);
+
+        if(tokenAct.getRange() != null)
+            removeByRange(tokenAct.getRange(), tokenAct);
+    }
+
+    /**
+     * Hands all tokens whose range begins before the given char position to the consumer, ordered by range.
+     */
+    public void forEachBeginningBefore(long pos, Consumer<TokenActivation> c) {
+        for(int i = 0; i < rangeSize && begins[i] < pos; i++)
+            c.accept(byRange[i]);
+    }
+
+    /**
+     * Hands all tokens with a token position within [from, to] to the consumer, ordered by position and id.
+     */
+    public void forEachByTokenPosition(int from, int to, Consumer<TokenActivation> c) {
+        from = Math.max(from, posOffset);
+        to = Math.min(to, maxPos);
+
+        for(int pos = from; pos <= to; pos++) {
+            TokenActivation[] tokens = slots[pos - posOffset];
+            if(tokens == null)
+                continue;
+
+            for(TokenActivation tokenAct: tokens)
+                c.accept(tokenAct);
+        }
+    }
+
+    /**
+     * Hands all tokens whose range is ordered at or after fromRange and before toRange to the consumer. Ranges
+     * are ordered by their begin and then by their end in descending order.
+     */
+    public void forEachByCharPosition(Range fromRange, Range toRange, Consumer<TokenActivation> c) {
+        int from = rangeInsertionPoint(fromRange.getBegin(), fromRange.getEnd(), Integer.MIN_VALUE);
+        int to = rangeInsertionPoint(toRange.getBegin(), toRange.getEnd(), Integer.MAX_VALUE);
+
+        for(int i = from; i < to; i++)
+            c.accept(byRange[i]);
+    }
+
+    private void addByPosition(int pos, TokenActivation tokenAct) {
+        ensurePosition(pos);
+
+        int i = pos - posOffset;
+        TokenActivation[] tokens = slots[i];
+        if(tokens == null) {
+            slots[i] = new TokenActivation[] {tokenAct};
+        } else {
+            int j = tokens.length;
+            while(j > 0 && tokens[j - 1].getId() > tokenAct.getId())
+                j--;
+
+            TokenActivation[] newTokens = new TokenActivation[tokens.length + 1];
+            System.arraycopy(tokens, 0, newTokens, 0, j);
+            newTokens[j] = tokenAct;
+            System.arraycopy(tokens, j, newTokens, j + 1, tokens.length - j);
+            slots[i] = newTokens;
+        }
+
+        maxPos = Math.max(maxPos, pos);
+    }
+
+    private void removeByPosition(int pos, TokenActivation tokenAct) {
+        if(pos < posOffset || pos > maxPos)
+            return;
+
+        int i = pos - posOffset;
+        TokenActivation[] tokens = slots[i];
+        if(tokens == null)
+            return;
+
+        int j = 0;
+        while(j < tokens.length && tokens[j] != tokenAct)
+            j++;
+
+        if(j == tokens.length)
+            return;
+
+        if(tokens.length == 1) {
+            slots[i] = null;
+            return;
+        }
+
+        TokenActivation[] newTokens = new TokenActivation[tokens.length - 1];
+        System.arraycopy(tokens, 0, newTokens, 0, j);
+        System.arraycopy(tokens, j + 1, newTokens, j, newTokens.length - j);
+        slots[i] = newTokens;
+    }
+
+    private void ensurePosition(int pos) {
+        if(maxPos < posOffset) {
+            // The index is empty, so the slots can be reused starting at the given position.
+            Arrays.fill(slots, null);
+            posOffset = pos;
+            maxPos = pos - 1;
+        }
+
+        if(pos < posOffset) {
+            int shift = posOffset - pos;
+            TokenActivation[][] newSlots = new TokenActivation[Math.max(slots.length, maxPos - pos + 1) * 2][];
+            System.arraycopy(slots, 0, newSlots, shift, maxPos - posOffset + 1);
+            slots = newSlots;
+            posOffset = pos;
+            return;
+        }
+
+        if(pos - posOffset < slots.length)
+            return;
+
+        int lead = 0;
+        int used = maxPos - posOffset + 1;
+        while(lead < used && slots[lead] == null)
+            lead++;
+
+        int required = pos - posOffset - lead + 1;
+        if(lead > 0 && required <= slots.length && lead >= slots.length / 2) {
+            System.arraycopy(slots, lead, slots, 0, used - lead);
+            Arrays.fill(slots, used - lead, used, null);
+        } else {
+            TokenActivation[][] newSlots = new TokenActivation[Math.max(slots.length * 2, required)][];
+            System.arraycopy(slots, lead, newSlots, 0, used - lead);
+            slots = newSlots;
+        }
+        posOffset += lead;
+    }
+
+    private void addByRange(Range r, TokenActivation tokenAct) {
+        int i = rangeInsertionPoint(r.getBegin(), r.getEnd(), tokenAct.getId());
+
+        if(rangeSize == byRange.length) {
+            int capacity = byRange.length * 2;
+            begins = Arrays.copyOf(begins, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            byRange = Arrays.copyOf(byRange, capacity);
+        }
+
+        int n = rangeSize - i;
+        System.arraycopy(begins, i, begins, i + 1, n);
+        System.arraycopy(ends, i, ends, i + 1, n);
+        System.arraycopy(byRange, i, byRange, i + 1, n);
+
+        begins[i] = r.getBegin();
+        ends[i] = r.getEnd();
+        byRange[i] = tokenAct;
+        rangeSize++;
+    }
+
+    private void removeByRange(Range r, TokenActivation tokenAct) {
+        int i = rangeInsertionPoint(r.getBegin(), r.getEnd(), tokenAct.getId());
+        if(i >= rangeSize || byRange[i] != tokenAct)
+            return;
+
+        int n = rangeSize - i - 1;
+        System.arraycopy(begins, i + 1, begins, i, n);
+        System.arraycopy(ends, i + 1, ends, i, n);
+        System.arraycopy(byRange, i + 1, byRange, i, n);
+
+        byRange[--rangeSize] = null;
+    }
+
+    /**
+     * @return the position of the first entry that is not ordered before the given key
+     */
+    private int rangeInsertionPoint(long begin, long end, int actId) {
+        int lo = 0;
+        int hi = rangeSize;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Long.compare(begins[mid], begin);
+            if(c == 0)
+                c = Long.compare(end, ends[mid]);
+            if(c == 0)
+                c = Integer.compare(byRange[mid].getId(), actId);
+
+            if(c < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable length encodings for the serialized neurons and synapses.
+ *
+ * Integers are written as unsigned LEB128 varints, so that small neuron ids only take one or two bytes.
+ * Doubles are prefixed by a one byte tag: zero takes a single byte, values that are exactly representable
+ * as a float take five bytes and all remaining values are stored with full double precision. If
+ * {@link #FLOAT_PRECISION_WEIGHTS} is set, field values such as weights and biases are always stored as
+ * floats, trading precision for size. The tag keeps the records readable, regardless of that setting.
+ *
+ * Records of the original format are read through a {@link LegacyDataInput}, for which the fixed width
+ * encodings are used instead.
+ *
+ * @author Lukas Molzberger
+ */
+public class CompactEncoding {
+
+    public static boolean FLOAT_PRECISION_WEIGHTS = false;
+
+    private static final int ZERO = 0;
+    private static final int FLOAT = 1;
+    private static final int DOUBLE = 2;
+
+    public static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        if(in instanceof LegacyDataInput)
+            return in.readLong();
+
+        long v = 0;
+        for(int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeVarInt(DataOutput out, int v) throws IOException {
+        writeVarLong(out, v & 0xFFFFFFFFL);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        if(in instanceof LegacyDataInput)
+            return in.readInt();
+
+        return (int) readVarLong(in);
+    }
+
+    public static void writeDouble(DataOutput out, double v) throws IOException {
+        writeDouble(out, v, false);
+    }
+
+    public static void writeWeight(DataOutput out, double v) throws IOException {
+        writeDouble(out, v, FLOAT_PRECISION_WEIGHTS);
+    }
+
+    private static void writeDouble(DataOutput out, double v, boolean floatPrecision) throws IOException {
+        if(Double.doubleToRawLongBits(v) == 0L) {
+            out.writeByte(ZERO);
+        } else if(floatPrecision || (double) (float) v == v) {
+            out.writeByte(FLOAT);
+            out.writeFloat((float) v);
+        } else {
+            out.writeByte(DOUBLE);
+            out.writeDouble(v);
+        }
+    }
+
+    public static double readDouble(DataInput in) throws IOException {
+        if(in instanceof LegacyDataInput)
+            return in.readDouble();
+
+        int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case ZERO -> 0.0;
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            default -> throw new IOException("Unknown double encoding: " + tag);
+        };
+    }
+}
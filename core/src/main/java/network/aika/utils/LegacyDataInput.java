@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Marks the input of a record that has been written in the original, uncompressed format (version 0). The
+ * readers of {@link CompactEncoding} fall back to the fixed width encodings of {@link DataInput} for such an input,
+ * so that neurons stored by earlier versions remain readable. They are written in the current format, once they
+ * are saved again.
+ *
+ * @author Lukas Molzberger
+ */
+public class LegacyDataInput implements DataInput {
+
+    private final DataInput in;
+
+    public LegacyDataInput(DataInput in) {
+        this.in = in;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        in.readFully(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        in.readFully(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        return in.skipBytes(n);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return in.readByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return in.readUnsignedByte();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return in.readShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return in.readUnsignedShort();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return in.readChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return in.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return in.readLine();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return in.readUTF();
+    }
+}
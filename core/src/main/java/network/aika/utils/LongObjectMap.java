@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Hash map with primitive long keys. The entries are kept in two dense arrays, which makes iterating over
+ * the values as cheap as iterating over an array. A separate open addressing table with linear probing maps
+ * the hash of a key to the position of its entry. Removing an entry moves the last entry into its place.
+ *
+ * Lookups and iterations do not block: They read optimistically and only fall back to the read lock, if a
+ * concurrent modification has been detected. Iterations work on a snapshot of the values, so the map may be
+ * modified while it is being iterated. The lock is only held for the duration of a single modification.
+ *
+ * @author Lukas Molzberger
+ */
+public class LongObjectMap<V> {
+
+    private static final long[] NO_KEYS = new long[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final ReadWriteLock lock = new ReadWriteLock();
+
+    private long[] keys = NO_KEYS;
+    private Object[] values = NO_VALUES;
+
+    /**
+     * Positions of the entries, offset by one, so that zero marks an empty slot.
+     */
+    private int[] slots = new int[2];
+
+    private volatile int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        V v = find(key);
+        if(lock.validate(stamp))
+            return v;
+
+        stamp = lock.readLock();
+        try {
+            return find(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a snapshot of the values.
+     */
+    public List<V> values() {
+        if(size == 0)
+            return List.of();
+
+        long stamp = lock.tryOptimisticRead();
+        Object[] snapshot = copyValues();
+        if(!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                snapshot = copyValues();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return (List<V>) Arrays.asList(snapshot);
+    }
+
+    public Stream<V> stream() {
+        return values().stream();
+    }
+
+    public V put(long key, V value) {
+        assert value != null;
+
+        lock.acquireWriteLock();
+        try {
+            int slot = findSlot(key);
+            if(slots[slot] != 0) {
+                int pos = slots[slot] - 1;
+                V old = (V) values[pos];
+                values[pos] = value;
+                return old;
+            }
+
+            if((size + 1) * 2 > slots.length) {
+                rehash(slots.length << 1);
+                slot = findSlot(key);
+            }
+
+            if(size == keys.length) {
+                int capacity = Math.max(4, size << 1);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+
+            keys[size] = key;
+            values[size] = value;
+            slots[slot] = size + 1;
+            size++;
+            return null;
+        } finally {
+            lock.releaseWriteLock();
+        }
+    }
+
+    public V remove(long key) {
+        lock.acquireWriteLock();
+        try {
+            int slot = findSlot(key);
+            if(slots[slot] == 0)
+                return null;
+
+            int pos = slots[slot] - 1;
+            V old = (V) values[pos];
+            deleteSlot(slot);
+
+            int last = size - 1;
+            if(pos != last) {
+                keys[pos] = keys[last];
+                values[pos] = values[last];
+                slots[findSlot(keys[pos])] = pos + 1;
+            }
+            values[last] = null;
+            size = last;
+            return old;
+        } finally {
+            lock.releaseWriteLock();
+        }
+    }
+
+    public void clear() {
+        lock.acquireWriteLock();
+        try {
+            keys = NO_KEYS;
+            values = NO_VALUES;
+            slots = new int[2];
+            size = 0;
+        } finally {
+            lock.releaseWriteLock();
+        }
+    }
+
+    private V find(long key) {
+        int[] slots = this.slots;
+        long[] keys = this.keys;
+        Object[] values = this.values;
+
+        int mask = slots.length - 1;
+        int i = hash(key) & mask;
+        for(int n = 0; n < slots.length; n++) {
+            int s = slots[i];
+            if(s == 0)
+                return null;
+
+            int pos = s - 1;
+            if(pos < keys.length && pos < values.length && keys[pos] == key)
+                return (V) values[pos];
+
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private Object[] copyValues() {
+        Object[] values = this.values;
+        return Arrays.copyOf(values, Math.min(size, values.length));
+    }
+
+    /**
+     * Returns the slot of the key or the empty slot at which it would have to be inserted.
+     */
+    private int findSlot(long key) {
+        int mask = slots.length - 1;
+        int i = hash(key) & mask;
+        while (slots[i] != 0 && keys[slots[i] - 1] != key)
+            i = (i + 1) & mask;
+
+        return i;
+    }
+
+    /**
+     * Backward shift deletion, which keeps the probe sequences intact without leaving tombstones.
+     */
+    private void deleteSlot(int i) {
+        int mask = slots.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if(slots[j] == 0)
+                break;
+
+            int home = hash(keys[slots[j] - 1]) & mask;
+            boolean movable = i <= j ?
+                    (home <= i || home > j) :
+                    (home <= i && home > j);
+
+            if(movable) {
+                slots[i] = slots[j];
+                i = j;
+            }
+        }
+        slots[i] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for(int pos = 0; pos < size; pos++) {
+            int i = hash(keys[pos]) & mask;
+            while (newSlots[i] != 0)
+                i = (i + 1) & mask;
+
+            newSlots[i] = pos + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
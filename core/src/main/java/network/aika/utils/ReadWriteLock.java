@@ -16,82 +16,77 @@
  */
 package network.aika.utils;
 
+import java.util.concurrent.locks.StampedLock;
+
 /**
+ * Readers/writer lock based on a {@link StampedLock}. Readers that only need a consistent snapshot should
+ * use an optimistic read: {@link #tryOptimisticRead()} returns a stamp without writing any shared state and
+ * {@link #validate(long)} afterwards tells whether a writer has interfered in the meantime. Only if the
+ * validation fails, the reader has to fall back to {@link #readLock()}.
+ *
+ * In contrast to a plain {@code StampedLock}, the write lock is reentrant and the thread that holds the
+ * write lock may also read, since the callbacks that run while a synapse is being added may access the
+ * synapses of the same neuron again.
  *
  * @author Lukas Molzberger
  */
 public class ReadWriteLock {
 
-    private int readers = 0;
-    private int writers = 0;
-    private int writeRequests = 0;
-    private long writerThreadId = -1;
-    private int waitForReadLock = 0;
-    private int waitForWriteLock = 0;
+    private static final long OWNER_STAMP = 0L;
+
+    private final StampedLock lock = new StampedLock();
 
-    private final Object writeLock = new Object();
+    private volatile Thread writer;
+    private int writeHolds;
+    private long writeStamp;
 
     public void acquireWriteLock() {
-        try {
-            synchronized (this) {
-                writeRequests++;
-                while (readers > 0) {
-                    wait();
-                }
-            }
-
-            long tid = Thread.currentThread().getId();
-            synchronized (writeLock) {
-                if(writerThreadId != tid) {
-                    waitForWriteLock++;
-                    while (writers > 0) {
-                        writeLock.wait();
-                    }
-                    waitForWriteLock--;
-                    writerThreadId = tid;
-                }
-                writers++;
-            }
-        } catch(InterruptedException e) {
-            e.printStackTrace();
+        Thread current = Thread.currentThread();
+        if(writer == current) {
+            writeHolds++;
+            return;
         }
-    }
 
-    public synchronized void acquireReadLock() {
-        try {
-            waitForReadLock++;
-            while (writeRequests > 0) {
-                wait();
-            }
-            waitForReadLock--;
-            readers++;
-        } catch(InterruptedException e) {
-            e.printStackTrace();
-        }
+        writeStamp = lock.writeLock();
+        writer = current;
+        writeHolds = 1;
     }
 
     public void releaseWriteLock() {
-        synchronized (writeLock) {
-            writers--;
-            if(writers == 0) {
-                writerThreadId = -1;
-                if(waitForWriteLock > 0) {
-                    writeLock.notify();
-                }
-            }
-        }
-        synchronized(this) {
-            writeRequests--;
-            if(writeRequests == 0 && waitForReadLock > 0) {
-                notifyAll();
-            }
-        }
+        if(writer != Thread.currentThread())
+            throw new IllegalMonitorStateException();
+
+        if(--writeHolds > 0)
+            return;
+
+        writer = null;
+        lock.unlockWrite(writeStamp);
     }
 
-    public synchronized void releaseReadLock() {
-        readers--;
-        if(writeRequests > 0 && readers == 0) {
-            notifyAll();
-        }
+    public boolean isWriteLockedByCurrentThread() {
+        return writer == Thread.currentThread();
+    }
+
+    /**
+     * @return a stamp for {@link #validate(long)}, or zero if the lock is held by a writer
+     */
+    public long tryOptimisticRead() {
+        return lock.tryOptimisticRead();
+    }
+
+    public boolean validate(long stamp) {
+        return lock.validate(stamp);
+    }
+
+    public long readLock() {
+        if(isWriteLockedByCurrentThread())
+            return OWNER_STAMP;
+
+        return lock.readLock();
+    }
+
+    public void unlockRead(long stamp) {
+        if(stamp != OWNER_STAMP)
+            lock.unlockRead(stamp);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.visitor;
+
+import network.aika.elements.links.Link;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Shared stack of link snapshots for the visitors of a thought. Since new links may be created while a
+ * visitor descends along the input links of an activation, the downward step iterates over a snapshot of
+ * these links. Instead of copying them into a new list on every hop, each step pushes its snapshot onto
+ * this stack and pops it again once the step has completed. Nested steps, including the steps of visitors
+ * that are started while another visitor is running, therefore simply occupy the next frame of the stack.
+ *
+ * @author Lukas Molzberger
+ */
+public class LinkStack {
+
+    private Link[] links = new Link[64];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public Link get(int i) {
+        return links[i];
+    }
+
+    /**
+     * @return the start index of the pushed frame, which is also the index to pop it with
+     */
+    public int push(Collection<Link> ls) {
+        int start = size;
+        int required = start + ls.size();
+        if(required > links.length)
+            links = Arrays.copyOf(links, Math.max(required, links.length << 1));
+
+        for(Link l: ls)
+            links[size++] = l;
+
+        return start;
+    }
+
+    public void pop(int start) {
+        Arrays.fill(links, start, size, null);
+        size = start;
+    }
+}
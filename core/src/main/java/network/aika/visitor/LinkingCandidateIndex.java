@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.visitor;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.Link;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes, per thought, the candidates a linking visitor reaches from a given start activation. A candidate
+ * is the triple (origin, last link, activation) that the upward traversal hands to the operator of the visitor.
+ * Since the traversal of the binding and pattern visitors only depends on the links between the activations,
+ * a subsequent visitor of the same type and the same start activation can replay the recorded candidates
+ * instead of walking the graph again.
+ *
+ * An entry remembers every activation that was expanded while it was recorded. As soon as a link is added
+ * to one of these activations, the entry is invalidated, since the traversal might now reach further
+ * activations. This also applies to entries that are currently being recorded or replayed.
+ *
+ * @author Lukas Molzberger
+ */
+public class LinkingCandidateIndex {
+
+    private record Key(Class<?> visitorType, int startId) {
+    }
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final Map<Integer, List<Entry>> entriesByAct = new HashMap<>();
+
+    private long hits;
+    private long misses;
+
+    public Entry lookup(Class<?> visitorType, Activation<?> start) {
+        Entry e = entries.get(new Key(visitorType, start.getId()));
+        if(e != null)
+            hits++;
+        else
+            misses++;
+
+        return e;
+    }
+
+    public Entry startRecording(Class<?> visitorType, Activation<?> start) {
+        return new Entry(new Key(visitorType, start.getId()));
+    }
+
+    public void finishRecording(Entry e) {
+        if(e.valid)
+            entries.put(e.key, e);
+    }
+
+    /**
+     * Called whenever a link is added to the activation act, either as an input or an output link.
+     */
+    public void invalidate(Activation<?> act) {
+        List<Entry> es = entriesByAct.remove(act.getId());
+        if(es == null)
+            return;
+
+        for(Entry e: es) {
+            if(!e.valid)
+                continue;
+
+            e.valid = false;
+            entries.remove(e.key, e);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private void addDependency(Activation<?> act, Entry e) {
+        List<Entry> es = entriesByAct.computeIfAbsent(act.getId(), id -> new ArrayList<>());
+        if(!es.isEmpty() && es.get(es.size() - 1) == e)
+            return;
+
+        es.removeIf(oe -> !oe.valid);
+        es.add(e);
+    }
+
+    public class Entry {
+
+        private final Key key;
+
+        private final List<Activation> origins = new ArrayList<>();
+        private final List<Link> lastLinks = new ArrayList<>();
+        private final List<Activation> acts = new ArrayList<>();
+
+        private boolean valid = true;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public void expanded(Activation<?> act) {
+            if(valid)
+                addDependency(act, this);
+        }
+
+        public void candidate(Activation<?> origin, Link lastLink, Activation<?> act) {
+            origins.add(origin);
+            lastLinks.add(lastLink);
+            acts.add(act);
+        }
+
+        public int size() {
+            return acts.size();
+        }
+
+        public Activation getOrigin(int i) {
+            return origins.get(i);
+        }
+
+        public Link getLastLink(int i) {
+            return lastLinks.get(i);
+        }
+
+        public Activation getActivation(int i) {
+            return acts.get(i);
+        }
+    }
+}
@@ -28,17 +28,90 @@ import network.aika.visitor.operator.Operator;
  */
 public abstract class LinkingVisitor<T extends Activation> extends Visitor<T> {
 
+    private final LinkingVisitor<T> root;
+
+    private LinkingCandidateIndex.Entry recording;
+
     public LinkingVisitor(Thought t, Operator operator) {
         super(t, operator);
+        root = this;
     }
 
-    protected LinkingVisitor(LinkingVisitor<T> parent, T origin) {
-        super(parent, origin);
+    protected LinkingVisitor(LinkingVisitor<T> parent) {
+        super(parent);
+        root = parent.root;
+    }
+
+    /**
+     * @return true if the traversal of this visitor only depends on its start activation and the links
+     * between the activations, so that its candidates may be memoized in the {@link LinkingCandidateIndex}.
+     */
+    protected boolean isMemoizable() {
+        return false;
+    }
+
+    @Override
+    public void start(Activation<?> act) {
+        LinkingCandidateIndex index = isMemoizable() ?
+                act.getThought().getLinkingCandidateIndex() :
+                null;
+
+        if(index == null) {
+            super.start(act);
+            return;
+        }
+
+        LinkingCandidateIndex.Entry e = index.lookup(getClass(), act);
+        if(e != null && replay(e))
+            return;
+
+        recording = index.startRecording(getClass(), act);
+        try {
+            super.start(act);
+        } finally {
+            index.finishRecording(recording);
+            recording = null;
+        }
+    }
+
+    /**
+     * Hands the recorded candidates to the operator. If a link created by the operator invalidates the entry,
+     * the replay is aborted and the caller falls back to a regular traversal. Since the operators do not create
+     * duplicate links, checking the already replayed candidates again is harmless.
+     */
+    private boolean replay(LinkingCandidateIndex.Entry e) {
+        try {
+            for(int i = 0; i < e.size(); i++) {
+                if(!e.isValid())
+                    return false;
+
+                origin = (T) e.getOrigin(i);
+                operator.check(this, e.getLastLink(i), e.getActivation(i));
+            }
+        } finally {
+            origin = null;
+        }
+        return true;
+    }
+
+    @Override
+    public void next(Activation<?> act, Link lastLink, int depth) {
+        LinkingCandidateIndex.Entry r = root.recording;
+        if(r != null)
+            r.expanded(act);
+
+        super.next(act, lastLink, depth);
     }
 
     public void check(Link lastLink, Activation act) {
-        if(direction.isUp())
-            operator.check(this, lastLink, act);
+        if(!direction.isUp())
+            return;
+
+        LinkingCandidateIndex.Entry r = root.recording;
+        if(r != null)
+            r.candidate(origin, lastLink, act);
+
+        operator.check(this, lastLink, act);
     }
 
     public boolean compatible(Scope from, Scope to) {
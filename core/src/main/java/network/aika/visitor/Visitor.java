@@ -20,9 +20,7 @@ import network.aika.Thought;
 import network.aika.elements.activations.Activation;
 import network.aika.elements.links.Link;
 import network.aika.visitor.operator.Operator;
-import network.aika.visitor.step.Down;
 import network.aika.visitor.step.Step;
-import network.aika.visitor.step.Up;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +42,8 @@ public abstract class Visitor<T extends Activation> {
 
     protected Operator operator;
 
+    private boolean active;
+
     public Visitor(Thought t, Operator operator) {
         this.v = t.getNewVisitorId();
 
@@ -51,15 +51,18 @@ public abstract class Visitor<T extends Activation> {
             log.debug(depthToSpace(0) + "Start:" + getClass().getSimpleName() + " " + operator.getClass().getSimpleName());
 
         this.operator = operator;
-        direction = new Down();
+        direction = Step.DOWN;
     }
 
-    protected Visitor(Visitor<T> parent, T origin) {
+    /**
+     * Creates a child visitor for the upward traversal. Since child visitors never start an upward traversal
+     * themselves, a parent can reuse the same child for all of its up steps, see {@link #isActive()}.
+     */
+    protected Visitor(Visitor<T> parent) {
         this.v = parent.v;
-        this.origin = origin;
         this.operator = parent.operator;
 
-        direction = new Up();
+        direction = Step.UP;
     }
 
     public void start(Activation<?> act) {
@@ -68,6 +71,23 @@ public abstract class Visitor<T extends Activation> {
 
     public abstract void upIntern(T origin, int depth);
 
+    /**
+     * @return true while this child visitor is traversing. A parent must not reuse an active child.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    protected void visitUp(T origin, Activation<?> act, int depth) {
+        this.origin = origin;
+        active = true;
+        try {
+            visit(act, null, depth);
+        } finally {
+            active = false;
+        }
+    }
+
     public void up(T origin, int depth) {
         if(direction.isUp())
             return;
@@ -29,18 +29,28 @@ import network.aika.visitor.LinkingVisitor;
  */
 public class BindingVisitor extends LinkingVisitor<PatternActivation> {
 
+    private BindingVisitor upVisitor;
+
     public BindingVisitor(Thought t, Operator operator) {
         super(t, operator);
     }
 
-    public BindingVisitor(BindingVisitor parent, PatternActivation origin) {
-        super(parent, origin);
+    public BindingVisitor(BindingVisitor parent) {
+        super(parent);
+    }
+
+    @Override
+    protected boolean isMemoizable() {
+        return true;
     }
 
     @Override
     public void upIntern(PatternActivation origin, int depth) {
-        new BindingVisitor(this, origin)
-                .visit(origin, null, depth);
+        BindingVisitor uv = upVisitor;
+        if(uv == null || uv.isActive())
+            upVisitor = uv = new BindingVisitor(this);
+
+        uv.visitUp(origin, origin, depth);
     }
 
     public void expandRelations(TokenActivation origin, int depth) {
@@ -37,6 +37,8 @@ public class RelationBindingVisitor extends BindingVisitor {
     protected TokenActivation downOrigin;
     protected TokenActivation upOrigin;
 
+    private RelationBindingVisitor relationUpVisitor;
+
     public RelationBindingVisitor(Thought t, LinkingOperator operator, RelationInputSynapse rel, Direction relationDir) {
         super(t, operator);
 
@@ -44,10 +46,8 @@ public class RelationBindingVisitor extends BindingVisitor {
         this.relationDir = relationDir;
     }
 
-    protected RelationBindingVisitor(RelationBindingVisitor parent, TokenActivation downOrigin, TokenActivation upOrigin) {
-        super(parent, downOrigin);
-        this.downOrigin = downOrigin;
-        this.upOrigin = upOrigin;
+    protected RelationBindingVisitor(RelationBindingVisitor parent) {
+        super(parent);
         this.relation = parent.relation;
         this.relationDir = parent.relationDir;
     }
@@ -71,15 +71,24 @@ public class RelationBindingVisitor extends BindingVisitor {
     @Override
     public void expandRelations(TokenActivation origin, int depth) {
         getRelation().getInput()
-                .evaluateLatentRelation(origin, relationDir)
-                .forEach(relTokenAct ->
+                .evaluateLatentRelation(origin, relationDir, relTokenAct ->
                         up(origin, relTokenAct, depth)
                 );
     }
 
     private void up(TokenActivation origin, TokenActivation relOrigin, int depth) {
-        new RelationBindingVisitor(this, origin, relOrigin)
-                .visit(relOrigin, null, depth);
+        RelationBindingVisitor uv = relationUpVisitor;
+        if(uv == null || uv.isActive())
+            relationUpVisitor = uv = new RelationBindingVisitor(this);
+
+        uv.downOrigin = origin;
+        uv.upOrigin = relOrigin;
+        uv.visitUp(origin, relOrigin, depth);
+    }
+
+    @Override
+    protected boolean isMemoizable() {
+        return false;
     }
 
     @Override
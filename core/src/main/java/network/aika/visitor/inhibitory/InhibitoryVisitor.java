@@ -31,16 +31,18 @@ public class InhibitoryVisitor extends LinkingVisitor<PatternActivation> {
 
     private Scope identityRef;
 
+    private InhibitoryVisitor upVisitor;
+
     public InhibitoryVisitor(Thought t, Operator operator, Scope identityRef) {
         super(t, operator);
 
         this.identityRef = identityRef;
     }
 
-    protected InhibitoryVisitor(InhibitoryVisitor parent, PatternActivation origin, Scope identityRef) {
-        super(parent, origin);
+    protected InhibitoryVisitor(InhibitoryVisitor parent) {
+        super(parent);
 
-        this.identityRef = identityRef;
+        this.identityRef = parent.identityRef;
     }
 
     public Scope getIdentityRef() {
@@ -49,8 +51,11 @@ public class InhibitoryVisitor extends LinkingVisitor<PatternActivation> {
 
     @Override
     public void upIntern(PatternActivation origin, int depth) {
-        new InhibitoryVisitor(this, origin, identityRef)
-                .visit(origin, null, depth);
+        InhibitoryVisitor uv = upVisitor;
+        if(uv == null || uv.isActive())
+            upVisitor = uv = new InhibitoryVisitor(this);
+
+        uv.visitUp(origin, origin, depth);
     }
 
     public void visit(Link l, int depth) {
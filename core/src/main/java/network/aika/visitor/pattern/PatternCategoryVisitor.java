@@ -31,14 +31,15 @@ public class PatternCategoryVisitor extends LinkingVisitor<PatternActivation> {
 
     private BindingActivation refAct;
 
+    private PatternCategoryVisitor upVisitor;
+
     public PatternCategoryVisitor(Thought t, Operator operator) {
         super(t, operator);
     }
 
 
-    protected PatternCategoryVisitor(PatternCategoryVisitor parent, PatternActivation origin) {
-        super(parent, origin);
-        this.refAct = parent.refAct;
+    protected PatternCategoryVisitor(PatternCategoryVisitor parent) {
+        super(parent);
     }
 
     public void setReferenceAct(BindingActivation refAct) {
@@ -47,8 +48,12 @@ public class PatternCategoryVisitor extends LinkingVisitor<PatternActivation> {
 
     @Override
     public void upIntern(PatternActivation origin, int depth) {
-        new PatternCategoryVisitor(this, origin)
-                .visit(origin, null, depth);
+        PatternCategoryVisitor uv = upVisitor;
+        if(uv == null || uv.isActive())
+            upVisitor = uv = new PatternCategoryVisitor(this);
+
+        uv.refAct = refAct;
+        uv.visitUp(origin, origin, depth);
     }
 
     public BindingActivation getReferenceAct() {
@@ -28,18 +28,28 @@ import network.aika.visitor.LinkingVisitor;
  */
 public class PatternVisitor extends LinkingVisitor<BindingActivation> {
 
+    private PatternVisitor upVisitor;
+
     public PatternVisitor(Thought t, Operator operator) {
         super(t, operator);
     }
 
-    protected PatternVisitor(PatternVisitor parent, BindingActivation origin) {
-        super(parent, origin);
+    protected PatternVisitor(PatternVisitor parent) {
+        super(parent);
+    }
+
+    @Override
+    protected boolean isMemoizable() {
+        return true;
     }
 
     @Override
     public void upIntern(BindingActivation origin, int depth) {
-        new PatternVisitor(this, origin)
-                .visit(origin, null, depth);
+        PatternVisitor uv = upVisitor;
+        if(uv == null || uv.isActive())
+            upVisitor = uv = new PatternVisitor(this);
+
+        uv.visitUp(origin, origin, depth);
     }
 
     public void visit(Link l, int depth) {
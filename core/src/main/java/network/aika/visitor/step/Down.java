@@ -18,6 +18,7 @@ package network.aika.visitor.step;
 
 import network.aika.elements.activations.Activation;
 import network.aika.elements.links.Link;
+import network.aika.visitor.LinkStack;
 import network.aika.visitor.Visitor;
 
 /**
@@ -26,8 +27,15 @@ import network.aika.visitor.Visitor;
 public class Down implements Step {
 
     public void next(Visitor v, Activation<?> act, int depth) {
-        act.getInputLinks()
-                .forEach(l -> v.visit(l, depth));
+        LinkStack stack = act.getThought().getLinkStack();
+        int start = stack.push(act.getInputLinksView());
+        int end = stack.size();
+        try {
+            for(int i = start; i < end; i++)
+                v.visit(stack.get(i), depth);
+        } finally {
+            stack.pop(start);
+        }
     }
 
     public void next(Visitor v, Link<?, ?, ?> l, int depth) {
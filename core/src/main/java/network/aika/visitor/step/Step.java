@@ -25,6 +25,10 @@ import network.aika.visitor.Visitor;
  */
 public interface Step {
 
+    Step DOWN = new Down();
+
+    Step UP = new Up();
+
     void next(Visitor v, Activation<?> act, int depth);
 
     void next(Visitor v, Link<?, ?, ?> l, int depth);
@@ -26,8 +26,8 @@ import network.aika.visitor.Visitor;
 public class Up implements Step {
 
     public void next(Visitor v, Activation<?> act, int depth) {
-        act.getOutputLinks()
-                .forEach(l -> v.visit(l, depth));
+        for(Link l: act.getOutputLinksView())
+            v.visit(l, depth);
     }
 
     public void next(Visitor v, Link<?, ?, ?> l, int depth) {
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.suspension.AsyncSuspensionCallback;
+import network.aika.suspension.FSSuspensionCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class AsyncSuspensionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCoalescedWrites() throws IOException {
+        AsyncSuspensionCallback sc = new AsyncSuspensionCallback(
+                new FSSuspensionCallback(tempDir, "test", false)
+        );
+        Model m = new Model(sc);
+        m.open(true);
+
+        for(int version = 0; version < 10; version++) {
+            for (long id = 1; id <= 20; id++) {
+                sc.store(id, null, null, new byte[]{(byte) id, (byte) version, 2, 3});
+
+                // Pending writes are visible before they reach the delegate
+                Assertions.assertEquals((byte) version, sc.retrieve(id)[1]);
+            }
+        }
+
+        sc.flush();
+
+        for(long id = 1; id <= 20; id++) {
+            byte[] data = sc.getDelegate().retrieve(id);
+            Assertions.assertEquals((byte) id, data[0]);
+            Assertions.assertEquals((byte) 9, data[1]);
+        }
+
+        sc.store(21L, null, null, new byte[]{21});
+        m.close();
+
+        FSSuspensionCallback fsc = new FSSuspensionCallback(tempDir, "test", true);
+        m = new Model(fsc);
+        m.open(false);
+
+        Assertions.assertEquals(21, fsc.getAllIds().size());
+        Assertions.assertEquals((byte) 21, fsc.retrieve(21L)[0]);
+        Assertions.assertEquals((byte) 9, fsc.retrieve(5L)[1]);
+        m.close();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.Bound;
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class BoundTest {
+
+    @Test
+    public void testExactBounds() {
+        for(double n = 1.0; n < 50.0; n += 7.0) {
+            for(double f = 0.0; f <= n; f += 1.0) {
+                double upper = new BetaDistribution(f + 1, (n - f) + 1)
+                        .inverseCumulativeProbability(Bound.BETA_THRESHOLD);
+
+                double lower = 1.0 - new BetaDistribution((n - f) + 1, f + 1)
+                        .inverseCumulativeProbability(Bound.BETA_THRESHOLD);
+
+                // The second call is served from the cache
+                for(int i = 0; i < 2; i++) {
+                    Assertions.assertEquals(upper, Bound.UPPER.probability(f, n), 0.0);
+                    Assertions.assertEquals(lower, Bound.LOWER.probability(f, n), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testApproximation() {
+        double minShape = Bound.APPROXIMATION_MIN_SHAPE;
+
+        for(double a = minShape; a < 1e7; a *= 3.1) {
+            for(double b = minShape; b < 1e7; b *= 3.1) {
+                double exact = new BetaDistribution(a, b)
+                        .inverseCumulativeProbability(Bound.BETA_THRESHOLD);
+
+                double approx = Bound.approximateInverseCumulativeProbability(a, b, Bound.BETA_THRESHOLD);
+
+                Assertions.assertEquals(exact, approx, exact * 2e-5);
+            }
+        }
+    }
+}
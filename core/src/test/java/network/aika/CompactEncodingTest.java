@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.Neuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.elements.synapses.PatternSynapse;
+import network.aika.elements.synapses.Synapse;
+import network.aika.suspension.FSSuspensionCallback;
+import network.aika.utils.CompactEncoding;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static network.aika.TestUtils.setBias;
+import static network.aika.suspension.SuspensionMode.SAVE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class CompactEncodingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testVarLong() throws IOException {
+        long[] values = {0L, 1L, 127L, 128L, 300L, Integer.MAX_VALUE, Long.MAX_VALUE, -1L};
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        for(long v: values)
+            CompactEncoding.writeVarLong(out, v);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        for(long v: values)
+            Assertions.assertEquals(v, CompactEncoding.readVarLong(in));
+
+        Assertions.assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testDouble() throws IOException {
+        double[] values = {0.0, -0.0, 1.0, 0.5, 0.1, -3.25, Double.MAX_VALUE, Double.NaN};
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        for(double v: values)
+            CompactEncoding.writeDouble(out, v);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        for(double v: values)
+            Assertions.assertEquals(Double.doubleToLongBits(v), Double.doubleToLongBits(CompactEncoding.readDouble(in)));
+
+        Assertions.assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testNeuronRoundTrip() {
+        SuspensionTest.DummySuspensionCallback sc = new SuspensionTest.DummySuspensionCallback();
+        Model m = new Model(sc);
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider(true);
+        NeuronProvider out = new BindingNeuron().init(m, "OUT").getProvider(true);
+        setBias(out.getNeuron(), 1.5);
+
+        new InputPatternSynapse()
+                .setWeight(0.1)
+                .init(in.getNeuron(), out.getNeuron())
+                .adjustBias();
+
+        in.suspend(SAVE);
+        out.suspend(SAVE);
+
+        byte[] record = sc.retrieve(out.getId());
+        Assertions.assertEquals(Neuron.FORMAT_VERSION, record[0]);
+
+        out = m.lookupNeuronProvider(out.getId());
+        BindingNeuron n = out.getNeuron();
+        Synapse s = n.getInputSynapse(in);
+
+        Assertions.assertEquals("OUT", n.getLabel());
+        Assertions.assertEquals(InputPatternSynapse.class, s.getClass());
+        Assertions.assertEquals(0.1, s.getWeight().getValue());
+    }
+
+    @Test
+    public void testRejectUnknownFormat() {
+        SuspensionTest.DummySuspensionCallback sc = new SuspensionTest.DummySuspensionCallback();
+        Model m = new Model(sc);
+
+        sc.store(1L, null, null, new byte[] {7, 0});
+
+        Assertions.assertThrows(RuntimeException.class, () ->
+                m.lookupNeuronProvider(1L).getNeuron()
+        );
+    }
+
+    /**
+     * The model files have been written in the original, uncompressed format. After the neurons have been
+     * saved again, they are stored in the current format.
+     */
+    @Test
+    public void testReadLegacyModel() throws IOException {
+        for(String prefix: new String[] {FSSuspensionCallback.MODEL, FSSuspensionCallback.INDEX}) {
+            String file = prefix + "-legacy.dat";
+            try (InputStream is = getClass().getResourceAsStream("/legacy-model/" + file)) {
+                Files.copy(is, tempDir.resolve(file));
+            }
+        }
+
+        Model m = new Model(new FSSuspensionCallback(tempDir, "legacy", false));
+        m.open(false);
+        checkLegacyModel(m);
+
+        for(long id = 1; id <= 3; id++) {
+            NeuronProvider p = m.lookupNeuronProvider(id);
+            p.getNeuron().setModified();
+            p.suspend(SAVE);
+        }
+        m.close();
+
+        FSSuspensionCallback sc = new FSSuspensionCallback(tempDir, "legacy", true);
+        m = new Model(sc);
+        m.open(false);
+
+        Assertions.assertEquals(Neuron.FORMAT_VERSION, sc.retrieve(2L)[0]);
+        checkLegacyModel(m);
+        m.close();
+    }
+
+    private static void checkLegacyModel(Model m) {
+        TokenNeuron in = m.lookupNeuronProvider(1L).getNeuron();
+        BindingNeuron bn = m.lookupNeuronProvider(2L).getNeuron();
+        PatternNeuron pn = m.lookupNeuronProvider(3L).getNeuron();
+
+        Assertions.assertEquals("A", in.getLabel());
+        Assertions.assertEquals("BN-A", bn.getLabel());
+        Assertions.assertEquals("P", pn.getLabel());
+
+        Assertions.assertEquals(2.5, bn.getBias().getValue());
+        Assertions.assertEquals(0.3, pn.getBias().getValue());
+
+        Synapse ipSyn = bn.getInputSynapse(in.getProvider());
+        Assertions.assertEquals(InputPatternSynapse.class, ipSyn.getClass());
+        Assertions.assertEquals(10.0, ipSyn.getWeight().getValue());
+
+        Synapse pSyn = pn.getInputSynapse(bn.getProvider());
+        Assertions.assertEquals(PatternSynapse.class, pSyn.getClass());
+        Assertions.assertEquals(0.1, pSyn.getWeight().getValue());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.steps.FieldStepPool;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class FieldStepPoolTest {
+
+    private static final List<String> TOKENS = List.of("the", "black", "cat");
+
+    @Test
+    public void testPooledStepsAreReusedAcrossDocuments() {
+        List<String> expected = process(initModel(), false);
+
+        Model m = initModel();
+        assertEquals(expected, process(m, true));
+        assertEquals(expected, process(m, true));
+
+        FieldStepPool pool = m.acquireFieldStepPool();
+        assertTrue(pool.size() > 0);
+        assertTrue(pool.getReused() > 0);
+        assertNotSame(pool, m.acquireFieldStepPool());
+    }
+
+    private static Model initModel() {
+        Model m = new Model();
+
+        for(String t: TOKENS) {
+            BindingNeuron bn = new BindingNeuron().init(m, t + " (b)");
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(lookupToken(m, t), bn)
+                    .adjustBias();
+            setBias(bn, 2.5);
+        }
+        return m;
+    }
+
+    private static List<String> process(Model m, boolean pooling) {
+        Document doc = new Document(m, "the black cat");
+        doc.setConfig(
+                getConfig()
+                        .setPoolingEnabled(pooling)
+        );
+
+        processTokens(m, doc, TOKENS);
+        doc.disconnect();
+
+        return doc.getActivations().stream()
+                .map(act -> act.getId() + " " + act.getLabel() + " " + act.getValue().getValue())
+                .toList();
+    }
+}
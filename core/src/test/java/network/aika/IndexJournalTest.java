@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.suspension.FSSuspensionCallback;
+import network.aika.suspension.MappedSuspensionCallback;
+import network.aika.suspension.SuspensionCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class IndexJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testRecoverWithoutClose(boolean mapped) throws IOException {
+        SuspensionCallback sc = createSuspensionCallback(mapped, 5);
+        Model m = new Model(sc);
+        m.open(true);
+
+        for(int i = 0; i < 12; i++) {
+            long id = sc.createId();
+            sc.store(id, null, null, new byte[]{(byte) id, 1, 2, 3});
+            sc.putLabel("N" + id, id);
+        }
+        sc.remove(3L);
+        sc.removeLabel("N3");
+        sc.store(4L, null, null, new byte[]{-4, 1, 2, 3});
+
+        // The model is not closed, as if the process had crashed.
+
+        sc = createSuspensionCallback(mapped, 5);
+        m = new Model(sc);
+        m.open(false);
+
+        Assertions.assertEquals(11, sc.getAllIds().size());
+        Assertions.assertNull(sc.getIdByLabel("N3"));
+        Assertions.assertEquals(12L, sc.getIdByLabel("N12"));
+        Assertions.assertEquals(-4, sc.retrieve(4L)[0]);
+        Assertions.assertEquals(12, sc.retrieve(12L)[0]);
+        Assertions.assertTrue(sc.createId() > 12);
+
+        m.close();
+    }
+
+    private SuspensionCallback createSuspensionCallback(boolean mapped, int checkpointInterval) {
+        if(mapped) {
+            MappedSuspensionCallback sc = new MappedSuspensionCallback(tempDir, "test", 64, false);
+            sc.setCheckpointInterval(checkpointInterval);
+            return sc;
+        }
+
+        FSSuspensionCallback sc = new FSSuspensionCallback(tempDir, "test", false);
+        sc.setCheckpointInterval(checkpointInterval);
+        return sc;
+    }
+}
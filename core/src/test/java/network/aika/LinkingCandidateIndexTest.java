@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.neurons.InhibitoryNeuron;
+import network.aika.enums.Scope;
+import network.aika.text.Document;
+import network.aika.visitor.LinkingCandidateIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.TestHelper.initPatternBlackCat;
+import static network.aika.TestHelper.initPatternTheCat;
+import static network.aika.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class LinkingCandidateIndexTest {
+
+    @Test
+    public void testSameLinksWithAndWithoutIndex() {
+        Document withIndex = processTheBlackCat(true);
+        Document withoutIndex = processTheBlackCat(false);
+
+        assertEquals(describe(withoutIndex), describe(withIndex));
+
+        LinkingCandidateIndex index = withIndex.getLinkingCandidateIndex();
+        assertEquals(4, index.getHits());
+        assertEquals(12, index.getMisses());
+        assertEquals(2, index.size());
+
+        assertNull(withoutIndex.getLinkingCandidateIndex());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        Model m = new Model();
+        Document doc = new Document(m, "");
+        doc.setConfig(getConfig());
+
+        assertNull(doc.getLinkingCandidateIndex());
+        doc.disconnect();
+    }
+
+    private static Document processTheBlackCat(boolean indexEnabled) {
+        Model m = new Model();
+
+        InhibitoryNeuron inhibNThe = new InhibitoryNeuron(Scope.SAME).init(m, "I-the");
+        InhibitoryNeuron inhibNCat = new InhibitoryNeuron(Scope.SAME).init(m, "I-cat");
+        initPatternTheCat(m, inhibNThe, inhibNCat, 0);
+        initPatternBlackCat(m);
+
+        Document doc = new Document(m, "the black cat");
+        doc.setConfig(
+                getConfig()
+                        .setAlpha(0.99)
+                        .setLearnRate(0.01)
+                        .setTrainingEnabled(true)
+                        .setLinkingCandidateIndexEnabled(indexEnabled)
+        );
+
+        processTokens(m, doc, List.of("the", "black", "cat"));
+
+        doc.postProcessing();
+        doc.updateModel();
+        doc.disconnect();
+
+        return doc;
+    }
+
+    private static List<String> describe(Document doc) {
+        return doc.getActivations()
+                .stream()
+                .map(act -> act.getId() + " " + act.getLabel() + " in:" + inputLinkIds(act))
+                .toList();
+    }
+
+    private static List<Integer> inputLinkIds(Activation<?> act) {
+        return act.getInputLinks()
+                .filter(l -> l.getInput() != null)
+                .map(l -> l.getInput().getId())
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.LongObjectMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class LongObjectMapTest {
+
+    @Test
+    public void testAgainstHashMap() {
+        Random r = new Random(42);
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+
+        for(int i = 0; i < 100000; i++) {
+            long key = r.nextInt(2000) - 100;
+            if(r.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String v = "v" + i;
+                Assertions.assertEquals(expected.put(key, v), map.put(key, v));
+            }
+
+            long probe = r.nextInt(2000) - 100;
+            Assertions.assertEquals(expected.get(probe), map.get(probe));
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        for(Map.Entry<Long, String> me: expected.entrySet())
+            Assertions.assertEquals(me.getValue(), map.get(me.getKey()));
+
+        Assertions.assertEquals(
+                new TreeSet<>(expected.values()),
+                new TreeSet<>(map.values())
+        );
+    }
+
+    @Test
+    public void testRemoveWhileIterating() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for(long i = 0; i < 100; i++)
+            map.put(i, i);
+
+        map.stream().forEach(v -> map.remove(v));
+
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertTrue(map.values().isEmpty());
+        Assertions.assertNull(map.get(5));
+    }
+}
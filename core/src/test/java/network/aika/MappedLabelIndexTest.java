@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.suspension.FSSuspensionCallback;
+import network.aika.suspension.MappedLabelIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class MappedLabelIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLookupAndCheckpoint() throws IOException {
+        File f = tempDir.resolve("labels.dat").toFile();
+        MappedLabelIndex labels = new MappedLabelIndex(f, false);
+
+        for(long id = 0; id < 1000; id++)
+            labels.put("token-" + id, id);
+        labels.put("Käse", 1000L);
+
+        checkpoint(labels);
+        Assertions.assertEquals(1001, labels.getNumberOfMappedLabels());
+
+        labels.remove("token-5");
+        labels.put("token-7", 7000L);
+        labels.put("aaa", 2000L);
+
+        Assertions.assertNull(labels.get("token-5"));
+        Assertions.assertEquals(7000L, labels.get("token-7"));
+
+        checkpoint(labels);
+        Assertions.assertEquals(1001, labels.getNumberOfMappedLabels());
+
+        labels = new MappedLabelIndex(f, true);
+        for(long id = 0; id < 1000; id++) {
+            Long expected = id == 5 ? null : (id == 7 ? 7000L : id);
+            Assertions.assertEquals(expected, labels.get("token-" + id));
+        }
+        Assertions.assertEquals(1000L, labels.get("Käse"));
+        Assertions.assertEquals(2000L, labels.get("aaa"));
+        Assertions.assertNull(labels.get("token-"));
+        Assertions.assertNull(labels.get("zzz"));
+        Assertions.assertNull(labels.get(""));
+    }
+
+    @Test
+    public void testFSSuspensionCallback() throws IOException {
+        FSSuspensionCallback sc = new FSSuspensionCallback(tempDir, "test", false);
+        sc.useMappedLabelIndex();
+        Model m = new Model(sc);
+        m.open(true);
+
+        sc.putLabel("A", 1L);
+        sc.putLabel("B", 2L);
+        sc.saveIndex(m);
+        sc.putLabel("C", 3L);
+        sc.removeLabel("A");
+        m.close();
+
+        sc = new FSSuspensionCallback(tempDir, "test", true);
+        sc.useMappedLabelIndex();
+        m = new Model(sc);
+        m.open(false);
+
+        Assertions.assertNull(sc.getIdByLabel("A"));
+        Assertions.assertEquals(2L, sc.getIdByLabel("B"));
+        Assertions.assertEquals(3L, sc.getIdByLabel("C"));
+        m.close();
+    }
+
+    private static void checkpoint(MappedLabelIndex labels) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        labels.writeCheckpoint(new DataOutputStream(baos));
+        Assertions.assertEquals(1, baos.size());
+    }
+}
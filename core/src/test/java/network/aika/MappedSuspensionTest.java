@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.exceptions.MissingNeuronException;
+import network.aika.suspension.MappedSuspensionCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static network.aika.suspension.SuspensionMode.SAVE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class MappedSuspensionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStoreAndRetrieve() throws IOException {
+        MappedSuspensionCallback sc = new MappedSuspensionCallback(tempDir, "test", 64, false);
+        Model m = new Model(sc);
+        m.open(true);
+
+        for(long id = 1; id <= 20; id++)
+            sc.store(id, null, null, new byte[]{(byte) id, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        Assertions.assertTrue(sc.getNumberOfSegments() > 1);
+
+        for(long id = 1; id <= 20; id++)
+            Assertions.assertEquals((byte) id, sc.retrieveBuffer(id).get(0));
+
+        m.close();
+
+        sc = new MappedSuspensionCallback(tempDir, "test", 64, true);
+        m = new Model(sc);
+        m.open(false);
+
+        for(long id = 1; id <= 20; id++) {
+            byte[] data = sc.retrieve(id);
+            Assertions.assertEquals(10, data.length);
+            Assertions.assertEquals((byte) id, data[0]);
+        }
+        m.close();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        MappedSuspensionCallback sc = new MappedSuspensionCallback(tempDir, "test", 64, false);
+        Model m = new Model(sc);
+        m.open(true);
+
+        for(long id = 1; id <= 20; id++)
+            sc.store(id, null, null, new byte[]{(byte) id, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+
+        for(long id = 1; id <= 18; id++)
+            sc.store(id, null, null, new byte[]{(byte) -id, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+
+        int numberOfSegments = sc.getNumberOfSegments();
+        long reclaimed = sc.compactInBackground().join();
+
+        Assertions.assertTrue(reclaimed >= 18 * 10);
+        Assertions.assertTrue(sc.getNumberOfSegments() < numberOfSegments);
+
+        m.close();
+
+        sc = new MappedSuspensionCallback(tempDir, "test", 64, true);
+        m = new Model(sc);
+        m.open(false);
+
+        for(long id = 1; id <= 20; id++)
+            Assertions.assertEquals((byte) (id <= 18 ? -id : id), sc.retrieveBuffer(id).get(0));
+
+        m.close();
+    }
+
+    @Test
+    public void testRetrieveAfterClose() throws IOException {
+        MappedSuspensionCallback sc = new MappedSuspensionCallback(tempDir, "test", 64, false);
+        Model m = new Model(sc);
+        m.open(true);
+
+        sc.store(1L, null, null, new byte[]{1, 2, 3});
+        m.close();
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                Assertions.assertThrows(MissingNeuronException.class, () ->
+                        sc.retrieveBuffer(1L)
+                )
+        );
+    }
+
+    @Test
+    public void testSuspendAndReactivateNeuron() throws IOException {
+        Model m = new Model(new MappedSuspensionCallback(tempDir, "test", false));
+        m.open(true);
+
+        NeuronProvider np = new TokenNeuron()
+                .init(m, "IN")
+                .getProvider();
+
+        np.getNeuron().setBias(2.0);
+        np.suspend(SAVE);
+        Assertions.assertTrue(np.isSuspended());
+
+        TokenNeuron n = m.lookupNeuronProvider(np.getId()).getNeuron();
+        Assertions.assertEquals("IN", n.getLabel());
+        Assertions.assertEquals(2.0, n.getBias().getValue());
+
+        m.close();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.suspension.InMemorySuspensionCallback;
+import network.aika.suspension.NeuronCache;
+import network.aika.utils.Writable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class NeuronCacheTest {
+
+    @Test
+    public void testBoundedResidentNeurons() {
+        Model m = new Model(new InMemorySuspensionCallback());
+        NeuronCache cache = new NeuronCache(m, 3, 0);
+        m.setNeuronCache(cache);
+
+        List<NeuronProvider> providers = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+            providers.add(
+                    new TokenNeuron()
+                            .init(m, "IN-" + i)
+                            .getProvider()
+            );
+
+        Assertions.assertTrue(cache.getNumberOfResidentNeurons() <= 3);
+        Assertions.assertEquals(7, cache.getNumberOfSuspensions());
+
+        for(int i = 0; i < 10; i++) {
+            TokenNeuron n = providers.get(i).getNeuron();
+            Assertions.assertEquals("IN-" + i, n.getLabel());
+            Assertions.assertTrue(cache.getNumberOfResidentNeurons() <= 3);
+        }
+    }
+
+    @Test
+    public void testReferencedWhileEvicted() throws InterruptedException {
+        Model m = new Model(new InMemorySuspensionCallback());
+        NeuronCache cache = new NeuronCache(m, 1, 0);
+        m.setNeuronCache(cache);
+
+        NeuronProvider pA = new TokenNeuron().init(m, "A").getProvider();
+        TokenNeuron nA = (TokenNeuron) pA.getIfNotSuspended();
+        nA.resetReferenced();
+
+        Thread t = new Thread(() ->
+                new TokenNeuron().init(m, "B")
+        );
+
+        // The eviction selects A as victim and then waits for the monitor of A, while A is referenced again.
+        synchronized (pA) {
+            t.start();
+            awaitBlocked(t);
+            Assertions.assertSame(nA, pA.getNeuron());
+        }
+        t.join();
+
+        Assertions.assertSame(nA, pA.getIfNotSuspended());
+        Assertions.assertSame(nA, pA.getNeuron());
+        Assertions.assertEquals(0, cache.getNumberOfSuspensions());
+        Assertions.assertEquals(2, cache.getNumberOfResidentNeurons());
+    }
+
+    @Test
+    public void testReactivateWhileEvicted() throws InterruptedException {
+        AtomicReference<NeuronProvider> evicted = new AtomicReference<>();
+        AtomicReference<BindingNeuron> reactivated = new AtomicReference<>();
+        AtomicReference<Thread> reactivation = new AtomicReference<>();
+
+        Model m = new Model(new InMemorySuspensionCallback() {
+            @Override
+            public void store(Long id, String label, Writable customData, byte[] data) {
+                super.store(id, label, customData, data);
+
+                NeuronProvider p = evicted.get();
+                if(p == null || !p.getId().equals(id) || reactivation.get() != null)
+                    return;
+
+                Thread t = new Thread(() ->
+                        reactivated.set(p.getNeuron())
+                );
+                reactivation.set(t);
+                t.start();
+                awaitBlocked(t);
+            }
+        });
+        NeuronCache cache = new NeuronCache(m, 1, 0);
+        m.setNeuronCache(cache);
+
+        BindingNeuron nA = new BindingNeuron().init(m, "A");
+        nA.setBias(2.0);
+        NeuronProvider pA = nA.getProvider();
+        nA.resetReferenced();
+        evicted.set(pA);
+
+        new TokenNeuron().init(m, "B");
+
+        Assertions.assertNotNull(reactivation.get());
+        reactivation.get().join();
+
+        BindingNeuron n = reactivated.get();
+        Assertions.assertNotNull(n);
+        Assertions.assertNotSame(nA, n);
+        Assertions.assertEquals(2.0, n.getBias().getValue());
+        Assertions.assertSame(n, pA.getNeuron());
+    }
+
+    private static void awaitBlocked(Thread t) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while(t.getState() != Thread.State.BLOCKED) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Thread did not block");
+            Thread.onSpinWait();
+        }
+    }
+}
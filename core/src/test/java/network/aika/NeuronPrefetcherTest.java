@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.NeuronProvider;
+import network.aika.elements.neurons.PatternNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.elements.synapses.PatternSynapse;
+import network.aika.suspension.NeuronPrefetcher;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static network.aika.TestUtils.getConfig;
+import static network.aika.TestUtils.setBias;
+import static network.aika.suspension.SuspensionMode.SAVE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class NeuronPrefetcherTest {
+
+    @Test
+    public void testPrefetchOnAddToken() throws InterruptedException {
+        Model m = new Model(new SuspensionTest.DummySuspensionCallback());
+
+        NeuronProvider in = new TokenNeuron().init(m, "IN").getProvider(true);
+        NeuronProvider out = new BindingNeuron().init(m, "OUT").getProvider(true);
+        setBias(out.getNeuron(), 1.0);
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in.getNeuron(), out.getNeuron())
+                .adjustBias();
+
+        in.setPermanent(false);
+        out.setPermanent(false);
+        in.suspend(SAVE);
+        out.suspend(SAVE);
+
+        NeuronPrefetcher prefetcher = new NeuronPrefetcher(2, 2);
+        m.setNeuronPrefetcher(prefetcher);
+
+        in = m.lookupNeuronProvider(in.getId());
+        out = m.lookupNeuronProvider(out.getId());
+        Assertions.assertTrue(out.isSuspended());
+
+        Document doc = new Document(m, "test");
+        doc.setConfig(getConfig());
+        doc.addToken(in.getNeuron(), 0, 0, 4);
+
+        prefetcher.awaitIdle();
+
+        Assertions.assertFalse(out.isSuspended());
+        Assertions.assertEquals(1, prefetcher.getNumberOfPrefetchedNeurons());
+
+        doc.disconnect();
+        prefetcher.close();
+    }
+
+    @Test
+    public void testNoSynchronousTraversalOfResidentNeurons() throws InterruptedException {
+        Model m = new Model(new SuspensionTest.DummySuspensionCallback());
+
+        TokenNeuron in = new TokenNeuron().init(m, "IN");
+        PatternNeuron pattern = new PatternNeuron().init(m, "P");
+
+        for(int i = 0; i < 2; i++) {
+            BindingNeuron bn = new BindingNeuron().init(m, "B" + i);
+
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(in, bn)
+                    .adjustBias();
+
+            new PatternSynapse()
+                    .setWeight(10.0)
+                    .init(bn, pattern)
+                    .adjustBias();
+        }
+
+        DeferredExecutor executor = new DeferredExecutor();
+        NeuronPrefetcher prefetcher = new NeuronPrefetcher(3, executor);
+        m.setNeuronPrefetcher(prefetcher);
+
+        Document doc = new Document(m, "test");
+        doc.setConfig(getConfig());
+        doc.addToken(in, 0, 0, 4);
+
+        Assertions.assertEquals(1, executor.tasks.size());
+        Assertions.assertEquals(0, prefetcher.getNumberOfVisitedNeurons());
+
+        executor.runAll();
+        prefetcher.awaitIdle();
+
+        // The pattern neuron is reachable through both binding neurons, but only visited once.
+        Assertions.assertEquals(4, prefetcher.getNumberOfVisitedNeurons());
+        Assertions.assertEquals(0, prefetcher.getNumberOfPrefetchedNeurons());
+
+        doc.disconnect();
+        prefetcher.close();
+    }
+
+    private static class DeferredExecutor extends AbstractExecutorService {
+
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            while(!tasks.isEmpty())
+                tasks.poll().run();
+        }
+
+        @Override
+        public void execute(Runnable r) {
+            tasks.add(r);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.copyOf(tasks);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
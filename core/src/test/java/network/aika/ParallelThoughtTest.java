@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static network.aika.TestUtils.getConfig;
+import static network.aika.TestUtils.process;
+import static network.aika.TestUtils.setBias;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ParallelThoughtTest {
+
+    @Test
+    public void testParallelDocuments() throws Exception {
+        Model m = new Model();
+
+        TokenNeuron in = new TokenNeuron().init(m, "I");
+        BindingNeuron na = new BindingNeuron().init(m, "A");
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in, na)
+                .adjustBias();
+
+        setBias(na, 1.0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                int docNr = i;
+                results.add(executor.submit(() -> {
+                    Document doc = new Document(m, "doc-" + docNr);
+                    doc.setConfig(getConfig());
+
+                    process(doc, List.of(
+                            doc.addToken(in, 0, 0, 5)
+                    ));
+
+                    Assertions.assertSame(doc, m.getCurrentThought());
+                    int numActs = na.getActivations(doc).size();
+                    doc.disconnect();
+
+                    Assertions.assertNull(m.getCurrentThought());
+                    return numActs;
+                }));
+            }
+
+            for (Future<Integer> r : results)
+                Assertions.assertEquals(1, r.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(0, na.getPreActivations().count());
+    }
+
+    @Test
+    public void testPreActivationsReleasedOnDisconnect() {
+        Model m = new Model();
+
+        TokenNeuron in = new TokenNeuron().init(m, "I");
+        BindingNeuron na = new BindingNeuron().init(m, "A");
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in, na)
+                .adjustBias();
+
+        setBias(na, 1.0);
+
+        Document doc = new Document(m, "doc");
+        doc.setConfig(getConfig());
+
+        process(doc, List.of(
+                doc.addToken(in, 0, 0, 3)
+        ));
+
+        Assertions.assertNotNull(na.getPreActivation(doc));
+        Assertions.assertEquals(1, na.getPreActivations().count());
+        Assertions.assertEquals(1, m.getActiveThoughts().count());
+
+        doc.disconnect();
+
+        Assertions.assertNull(na.getPreActivation(doc));
+        Assertions.assertTrue(na.getActivations(doc).isEmpty());
+        Assertions.assertEquals(0, na.getPreActivations().count());
+        Assertions.assertEquals(0, m.getActiveThoughts().count());
+    }
+}
@@ -17,6 +17,8 @@
 package network.aika;
 
 import network.aika.elements.Timestamp;
+import network.aika.steps.FieldStep;
+import network.aika.steps.StepQueue;
 import network.aika.steps.keys.FieldQueueKey;
 import network.aika.steps.Phase;
 import network.aika.steps.keys.QueueKey;
@@ -49,4 +51,62 @@ public class QueueSortTest {
 
         Assertions.assertNotNull(removedStep);
     }
+
+    @Test
+    public void testStepQueueOrder() {
+        StepQueue queue = new StepQueue();
+
+        FieldStep s1 = createFieldStep(queue, Phase.INFERENCE, 0, 0.5, 0);
+        FieldStep s2 = createFieldStep(queue, Phase.INFERENCE, 0, 2.0, 1);
+        FieldStep s3 = createFieldStep(queue, Phase.INFERENCE, 1, 5.0, 2);
+        FieldStep s4 = createFieldStep(queue, Phase.INPUT_LINKING, 0, 0.1, 3);
+        FieldStep s5 = createFieldStep(queue, Phase.INFERENCE, 0, 0.5, 4);
+        FieldStep s6 = createFieldStep(queue, Phase.INFERENCE, 0, 1.0, 5);
+
+        s1.updateQueueKey(6);
+        queue.update(s1);
+
+        Assertions.assertTrue(queue.remove(s6));
+        Assertions.assertFalse(s6.isQueued());
+
+        Assertions.assertSame(s4, queue.poll());
+        Assertions.assertSame(s2, queue.poll());
+        Assertions.assertSame(s5, queue.poll());
+        Assertions.assertSame(s1, queue.poll());
+        Assertions.assertSame(s3, queue.poll());
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testStepQueueRemoveIf() {
+        StepQueue queue = new StepQueue();
+
+        FieldStep[] steps = new FieldStep[20];
+        for(int i = 0; i < steps.length; i++)
+            steps[i] = createFieldStep(queue, Phase.INFERENCE, 0, (i * 7) % steps.length, i);
+
+        Assertions.assertTrue(queue.removeIf(s -> ((FieldStep) s).getDelta() % 3 == 0));
+        Assertions.assertFalse(queue.removeIf(s -> ((FieldStep) s).getDelta() % 3 == 0));
+
+        for(FieldStep s: steps)
+            Assertions.assertEquals(s.getDelta() % 3 != 0, s.isQueued());
+
+        double lastDelta = Double.MAX_VALUE;
+        int polled = 0;
+        while(!queue.isEmpty()) {
+            FieldStep s = (FieldStep) queue.poll();
+            Assertions.assertTrue(s.getDelta() < lastDelta);
+            lastDelta = s.getDelta();
+            polled++;
+        }
+        Assertions.assertEquals(13, polled);
+    }
+
+    private FieldStep createFieldStep(StepQueue queue, Phase p, int round, double delta, long timestamp) {
+        FieldStep s = new FieldStep(null, p, round, null);
+        s.updateDelta(delta);
+        s.updateQueueKey(timestamp);
+        queue.add(s);
+        return s;
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.ReadWriteLock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ReadWriteLockTest {
+
+    @Test
+    public void testOptimisticRead() {
+        ReadWriteLock lock = new ReadWriteLock();
+
+        long stamp = lock.tryOptimisticRead();
+        Assertions.assertTrue(lock.validate(stamp));
+
+        lock.acquireWriteLock();
+        lock.releaseWriteLock();
+
+        Assertions.assertFalse(lock.validate(stamp));
+    }
+
+    @Test
+    public void testReentrantWriter() throws InterruptedException {
+        ReadWriteLock lock = new ReadWriteLock();
+
+        lock.acquireWriteLock();
+        lock.acquireWriteLock();
+
+        // The writer may read without blocking
+        long stamp = lock.readLock();
+        lock.unlockRead(stamp);
+
+        lock.releaseWriteLock();
+        Assertions.assertTrue(lock.isWriteLockedByCurrentThread());
+
+        boolean[] acquired = new boolean[1];
+        Thread t = new Thread(() -> {
+            lock.acquireWriteLock();
+            acquired[0] = true;
+            lock.releaseWriteLock();
+        });
+        t.start();
+        t.join(100);
+        Assertions.assertFalse(acquired[0]);
+
+        lock.releaseWriteLock();
+        t.join();
+        Assertions.assertTrue(acquired[0]);
+    }
+}
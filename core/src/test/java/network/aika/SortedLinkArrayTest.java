@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.links.Link;
+import network.aika.elements.links.SortedLinkArray;
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static network.aika.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class SortedLinkArrayTest {
+
+    @Test
+    public void testSortedInsertLookupAndRemove() {
+        Document doc = processDocument();
+        List<Link> links = doc.getActivations().stream()
+                .flatMap(Activation::getInputLinks)
+                .toList();
+        assertTrue(links.size() >= 3);
+
+        SortedLinkArray array = new SortedLinkArray();
+        List<long[]> keys = new ArrayList<>();
+        for(int i = links.size() - 1; i >= 0; i--) {
+            long neuronId = i % 3;
+            assertNull(array.put(neuronId, i, links.get(i)));
+            keys.add(new long[] {neuronId, i});
+        }
+        keys.sort(Comparator.<long[]>comparingLong(k -> k[0]).thenComparingLong(k -> k[1]));
+
+        assertEquals(links.size(), array.size());
+        for(int i = 0; i < keys.size(); i++)
+            assertSame(links.get((int) keys.get(i)[1]), array.get(i));
+
+        assertSame(links.get(1), array.get(1, 1));
+        assertNull(array.get(1, 2));
+
+        List<Link> neuron1 = array.stream(1).toList();
+        assertEquals(keys.stream().filter(k -> k[0] == 1).count(), neuron1.size());
+        neuron1.forEach(l -> assertEquals(1, links.indexOf(l) % 3));
+        assertEquals(0, array.stream(7).count());
+
+        assertFalse(array.remove(1, 1, links.get(0)));
+        assertTrue(array.remove(1, 1, links.get(1)));
+        assertNull(array.get(1, 1));
+        assertEquals(links.size() - 1, array.size());
+
+        doc.disconnect();
+    }
+
+    @Test
+    public void testActivationLinkLookups() {
+        Document doc = processDocument();
+
+        for(Activation<?> act: doc.getActivations()) {
+            act.getInputLinks().forEach(l -> {
+                assertSame(l, act.getInputLink(l.getSynapse()));
+                assertTrue(l.getInput().getOutputLinks(l.getSynapse()).anyMatch(ol -> ol == l));
+            });
+        }
+
+        doc.disconnect();
+    }
+
+    private static Document processDocument() {
+        Model m = new Model();
+
+        for(String t: List.of("the", "black", "cat")) {
+            BindingNeuron bn = new BindingNeuron().init(m, t + " (b)");
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(lookupToken(m, t), bn)
+                    .adjustBias();
+            setBias(bn, 2.5);
+        }
+
+        Document doc = new Document(m, "the black cat");
+        doc.setConfig(getConfig());
+
+        processTokens(m, doc, List.of("the", "black", "cat"));
+        return doc;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.Activation;
+import network.aika.elements.activations.TokenActivation;
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.elements.synapses.Synapse;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.TestUtils.*;
+import static network.aika.steps.Phase.INFERENCE;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class StreamingDocumentTest {
+
+    private static final String CHUNK = "the black cat ";
+
+    private static final int WINDOW_SIZE = 2 * CHUNK.length();
+
+    @Test
+    public void testSlidingWindow() {
+        Model m = new Model();
+
+        for(String t: List.of("the", "black", "cat")) {
+            BindingNeuron bn = new BindingNeuron().init(m, t + " (b)");
+            new InputPatternSynapse()
+                    .setWeight(10.0)
+                    .init(lookupToken(m, t), bn)
+                    .adjustBias();
+            setBias(bn, 2.5);
+        }
+
+        Document doc = new Document(m, null);
+        doc.setConfig(getConfig());
+        doc.setWindowSize(WINDOW_SIZE);
+
+        int pos = 0;
+        int maxActs = 0;
+        int maxReceivers = 0;
+        for(int i = 0; i < 20; i++) {
+            int begin = doc.length();
+            doc.append(CHUNK);
+
+            TokenActivation first = null;
+            for(String t: CHUNK.trim().split(" ")) {
+                TokenActivation tAct = addToken(m, doc, t, pos++, begin, begin + t.length());
+                tAct.setNet(10.0);
+                doc.process(MAX_ROUND, INFERENCE);
+
+                if(first == null)
+                    first = tAct;
+                begin += t.length() + 1;
+            }
+
+            doc.slideWindow();
+
+            assertTrue(doc.getContent().length() <= WINDOW_SIZE);
+            assertEquals((i + 1) * CHUNK.length(), doc.length());
+            assertEquals("the", Document.getText(first));
+
+            if(i >= 2) {
+                maxActs = Math.max(maxActs, doc.getActivations().size());
+                maxReceivers = Math.max(maxReceivers, countWeightReceivers(m));
+            }
+        }
+
+        assertTrue(maxActs > 0);
+        assertEquals(maxActs, doc.getActivations().size());
+        assertEquals(maxReceivers, countWeightReceivers(m));
+        assertNull(doc.getActivation(0));
+
+        doc.disconnect();
+    }
+
+    @Test
+    public void testRetireBefore() {
+        Model m = new Model();
+
+        BindingNeuron bn = new BindingNeuron().init(m, "the (b)");
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(lookupToken(m, "the"), bn)
+                .adjustBias();
+        setBias(bn, 2.5);
+
+        Document doc = new Document(m, "the the the");
+        doc.setConfig(getConfig());
+
+        for(int pos = 0; pos < 3; pos++) {
+            addToken(m, doc, "the", pos, 4 * pos, 4 * pos + 3)
+                    .setNet(10.0);
+            doc.process(MAX_ROUND, INFERENCE);
+        }
+
+        Activation<?> unlinked = bn.createActivation(doc);
+        assertNull(unlinked.getRange());
+
+        doc.retireBefore(8);
+
+        assertEquals("the", doc.getContent());
+        assertEquals(8, doc.getContentOffset());
+        assertSame(unlinked, doc.getActivation(unlinked.getId()));
+        assertTrue(
+                doc.getActivations().stream()
+                        .filter(act -> act != unlinked)
+                        .allMatch(act -> act.getRange().getBegin() >= 8)
+        );
+        assertEquals(1, bn.getActivations(doc).stream().filter(act -> act != unlinked).count());
+
+        doc.disconnect();
+    }
+
+    private static int countWeightReceivers(Model m) {
+        return List.of("the", "black", "cat").stream()
+                .map(t -> lookupToken(m, t))
+                .flatMap(n -> n.getOutputSynapsesAsStream())
+                .map(Synapse::getWeight)
+                .mapToInt(w -> w.getReceivers().size())
+                .sum();
+    }
+}
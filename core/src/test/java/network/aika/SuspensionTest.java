@@ -98,7 +98,7 @@ public class SuspensionTest {
         }
 
         @Override
-        public void open() {
+        public void open(Model m) {
         }
 
         @Override
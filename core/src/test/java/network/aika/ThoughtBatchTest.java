@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.TestUtils.getConfig;
+import static network.aika.TestUtils.process;
+import static network.aika.TestUtils.setBias;
+import static network.aika.steps.Phase.INFERENCE;
+import static network.aika.steps.keys.QueueKey.MAX_ROUND;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ThoughtBatchTest {
+
+    @Test
+    public void testBatchMatchesSingleDocuments() {
+        Model m = new Model();
+
+        TokenNeuron inA = new TokenNeuron().init(m, "A");
+        TokenNeuron inB = new TokenNeuron().init(m, "B");
+        BindingNeuron na = initBindingNeuron(inA, "BN-A");
+        BindingNeuron nb = initBindingNeuron(inB, "BN-B");
+
+        List<TokenNeuron> inputs = List.of(inA, inB, inA, inA, inB);
+
+        ThoughtBatch<Document> batch = new ThoughtBatch<>(m, getConfig().setMetricsEnabled(true));
+        for(TokenNeuron in: inputs) {
+            Document doc = batch.add(new Document(m, in.getLabel()));
+
+            Assertions.assertNull(m.getCurrentThought());
+            Assertions.assertSame(batch.getConfig(), doc.getConfig());
+
+            batch.run(doc, () ->
+                    doc.addToken(in, 0, 0, 1)
+                            .setNet(10.0)
+            );
+        }
+
+        batch.process(MAX_ROUND, INFERENCE);
+        batch.anneal();
+
+        Assertions.assertNull(m.getCurrentThought());
+        Assertions.assertEquals(inputs.size(), m.getActiveThoughts().count());
+
+        Document single = new Document(m, "A");
+        single.setConfig(getConfig());
+        process(single, List.of(
+                single.addToken(inA, 0, 0, 1)
+        ));
+        double expected = na.getActivations(single).first().getValue().getValue();
+        single.disconnect();
+
+        for(int i = 0; i < inputs.size(); i++) {
+            Document doc = batch.getThoughts().get(i);
+            boolean isA = inputs.get(i) == inA;
+
+            Assertions.assertEquals(isA ? 1 : 0, na.getActivations(doc).size());
+            Assertions.assertEquals(isA ? 0 : 1, nb.getActivations(doc).size());
+            Assertions.assertEquals(1.0, doc.getAnnealing().getValue());
+            Assertions.assertEquals(single.getRound(false), doc.getRound(false));
+            Assertions.assertTrue(doc.getQueue().isEmpty());
+
+            if(isA)
+                Assertions.assertEquals(expected, na.getActivations(doc).first().getValue().getValue());
+        }
+
+        batch.disconnect();
+
+        Assertions.assertEquals(0, m.getActiveThoughts().count());
+        Assertions.assertEquals(inputs.size(), m.getMetrics().getThoughtCount());
+        Assertions.assertEquals(0, na.getPreActivations().count());
+    }
+
+    private static BindingNeuron initBindingNeuron(TokenNeuron in, String label) {
+        BindingNeuron bn = new BindingNeuron().init(in.getModel(), label);
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in, bn)
+                .adjustBias();
+
+        setBias(bn, 2.5);
+        return bn;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.neurons.BindingNeuron;
+import network.aika.elements.neurons.TokenNeuron;
+import network.aika.elements.synapses.InputPatternSynapse;
+import network.aika.metrics.StepTimings;
+import network.aika.metrics.ThoughtMetrics;
+import network.aika.steps.FieldStep;
+import network.aika.text.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static network.aika.TestUtils.getConfig;
+import static network.aika.TestUtils.process;
+import static network.aika.TestUtils.setBias;
+import static network.aika.steps.Phase.INFERENCE;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ThoughtMetricsTest {
+
+    @Test
+    public void testThoughtMetrics() {
+        Model m = new Model();
+
+        TokenNeuron in = new TokenNeuron().init(m, "I");
+        BindingNeuron na = new BindingNeuron().init(m, "A");
+
+        new InputPatternSynapse()
+                .setWeight(10.0)
+                .init(in, na)
+                .adjustBias();
+
+        setBias(na, 1.0);
+
+        Document doc = new Document(m, "doc");
+        doc.setConfig(
+                getConfig()
+                        .setMetricsEnabled(true)
+        );
+
+        process(doc, List.of(
+                doc.addToken(in, 0, 0, 3)
+        ));
+
+        ThoughtMetrics tm = doc.getMetrics();
+        Assertions.assertEquals(2, tm.getActivationsCreated());
+        Assertions.assertEquals(1, tm.getLinksCreated());
+        Assertions.assertTrue(tm.getQueueHighWaterMark() > 0);
+        Assertions.assertTrue(tm.getPhaseTimings(INFERENCE).getCount() > 0);
+        Assertions.assertTrue(tm.getStepTimings(FieldStep.class).getCount() > 0);
+
+        doc.disconnect();
+
+        Assertions.assertEquals(1, m.getMetrics().getThoughtCount());
+        Assertions.assertEquals(tm.getStepCount(), m.getMetrics().getStepCount());
+    }
+
+    @Test
+    public void testPercentiles() {
+        StepTimings st = new StepTimings();
+        for(int i = 1; i <= 1000; i++)
+            st.record(i * 1000L);
+
+        Assertions.assertEquals(1000, st.getCount());
+        Assertions.assertEquals(1000000, st.getMaxNanos());
+
+        long p50 = st.getPercentileNanos(0.5);
+        Assertions.assertTrue(p50 >= 500000 && p50 <= 500000 * (1.0 + 1.0 / StepTimings.SUB_BUCKETS));
+
+        Assertions.assertEquals(1000000, st.getPercentileNanos(1.0));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.elements.activations.TokenActivation;
+import network.aika.text.Document;
+import network.aika.text.Range;
+import network.aika.text.TokenIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static network.aika.TestUtils.addToken;
+import static network.aika.TestUtils.getConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class TokenIndexTest {
+
+    @Test
+    public void testTokenPositions() {
+        Model m = new Model();
+        Document doc = new Document(m, "a b c");
+        doc.setConfig(getConfig());
+
+        TokenActivation a = addToken(m, doc, "a", 0, 0, 1);
+        TokenActivation b = addToken(m, doc, "b", 1, 2, 3);
+        TokenActivation b2 = addToken(m, doc, "b", 1, 2, 3);
+        TokenActivation c = addToken(m, doc, "c", 2, 4, 5);
+
+        assertEquals(List.of(a, b, b2), byPosition(doc, a, -1, 1));
+        assertEquals(List.of(b, b2, c), byPosition(doc, c, -1, 0));
+        assertEquals(List.of(), byPosition(doc, c, 1, 5));
+
+        List<TokenActivation> result = new ArrayList<>();
+        doc.getRelatedTokensByCharPosition(new Range(2, 3), new Range(4, 5), result::add);
+        assertEquals(List.of(b, b2, c), result);
+
+        result.clear();
+        doc.getRelatedTokensByCharPosition(new Range(2, 3), new Range(4, 6), result::add);
+        assertEquals(List.of(b, b2), result);
+
+        doc.disconnect();
+    }
+
+    @Test
+    public void testSlidingPositions() {
+        Model m = new Model();
+        Document doc = new Document(m, null);
+        doc.setConfig(getConfig());
+        TokenIndex index = new TokenIndex();
+
+        List<TokenActivation> tokens = new ArrayList<>();
+        for(int pos = 0; pos < 1000; pos++) {
+            TokenActivation t = addToken(m, doc, "t", pos, 2 * pos, 2 * pos + 1);
+            tokens.add(t);
+            index.add(t);
+
+            if(pos >= 10)
+                index.remove(tokens.get(pos - 10));
+        }
+
+        List<TokenActivation> result = new ArrayList<>();
+        index.forEachByTokenPosition(0, 2000, result::add);
+        assertEquals(tokens.subList(990, 1000), result);
+
+        result.clear();
+        index.forEachByCharPosition(new Range(0, 0), new Range(1985, Long.MAX_VALUE), result::add);
+        assertEquals(tokens.subList(990, 993), result);
+
+        doc.disconnect();
+    }
+
+    private static List<TokenActivation> byPosition(Document doc, TokenActivation from, int relFrom, int relTo) {
+        List<TokenActivation> result = new ArrayList<>();
+        doc.getRelatedTokensByTokenPosition(from, relFrom, relTo, result::add);
+        return result;
+    }
+}
@@ -18,6 +18,7 @@ package experiment;
 
 import network.aika.meta.AbstractTemplateModel;
 import network.aika.meta.SyllableTemplateModel;
+import network.aika.Config;
 import network.aika.Model;
 import network.aika.debugger.AIKADebugger;
 import network.aika.elements.activations.*;
@@ -70,12 +71,8 @@ public class SyllablesExperiment extends TrainingParser<Context> {
     }
 
     @Override
-    protected Document initDocument(String txt, Context context, ParserPhase phase) {
-        Document doc = super.initDocument(txt, context, phase);
-
-        doc.getConfig()
-                .setAlpha(null)
-                .setLearnRate(0.01);
+    protected Document initDocument(String txt, Context context, ParserPhase phase, Config conf) {
+        Document doc = super.initDocument(txt, context, phase, conf);
 
         doc.setInstantiationCallback(act -> {
             generateTemplateInstanceLabels(act);
@@ -134,7 +131,7 @@ public class SyllablesExperiment extends TrainingParser<Context> {
     public Document process(String txt, Context context, ParserPhase phase) {
         System.out.println(counter[0] + " " + txt);
 
-        Document doc = initDocument(txt, context, phase);
+        Document doc = initDocument(txt, context, phase, createConfig(phase));
 
         if(counter[0] >= 0) {// 3, 6, 11, 18, 100, 39, 49
             debugger = AIKADebugger.createAndShowGUI(doc);
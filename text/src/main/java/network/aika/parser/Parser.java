@@ -18,14 +18,17 @@ package network.aika.parser;
 
 
 import network.aika.Config;
+import network.aika.ThoughtBatch;
 import network.aika.debugger.AIKADebugger;
 import network.aika.elements.activations.TokenActivation;
+import network.aika.elements.neurons.TokenNeuron;
 import network.aika.meta.AbstractTemplateModel;
 import network.aika.text.Document;
 import network.aika.tokenizer.Tokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 
 import static network.aika.parser.ParserPhase.TRAINING;
 import static network.aika.steps.Phase.ANNEAL;
@@ -42,16 +45,20 @@ public abstract class Parser<C extends Context> {
 
     public abstract Tokenizer getTokenizer();
 
-    protected Document initDocument(String txt, C context, ParserPhase phase) {
-        Document doc = new Document(getTemplateModel().getModel(), txt);
-
-        Config conf = new Config()
+    protected Config createConfig(ParserPhase phase) {
+        return new Config()
                 .setAlpha(null)
                 .setLearnRate(0.01)
                 .setTrainingEnabled(phase == TRAINING)
                 .setMetaInstantiationEnabled(phase == TRAINING)
                 .setCountingEnabled(true);
+    }
 
+    /**
+     * @param conf the config of the document, which might be shared with other documents of the same batch
+     */
+    protected Document initDocument(String txt, C context, ParserPhase phase, Config conf) {
+        Document doc = new Document(getTemplateModel().getModel(), txt);
         doc.setConfig(conf);
 
         return doc;
@@ -62,7 +69,7 @@ public abstract class Parser<C extends Context> {
     protected AIKADebugger debugger = null;
 
     public Document process(String txt, C context, ParserPhase phase) {
-        Document doc = initDocument(txt, context, phase);
+        Document doc = initDocument(txt, context, phase, createConfig(phase));
 
         try {
             infer(doc, context, phase);
@@ -76,19 +83,103 @@ public abstract class Parser<C extends Context> {
         return doc;
     }
 
+    /**
+     * Processes an arbitrarily long input chunk by chunk. After each chunk has been inferred, the activations that
+     * fell out of the window of the last windowSize characters are retired, so that the memory consumption only
+     * depends on the window size. Chunks should end at token boundaries, e.g. at the end of a line.
+     *
+     * The stream is inference-only: Since the anneal value is shared by the whole document, retired activations
+     * could not be annealed together with the rest of the document. The document is therefore not annealed and
+     * training is not supported, training documents have to be passed to
+     * {@link #process(String, Context, ParserPhase)}.
+     */
+    public Document processStream(Iterable<String> chunks, C context, ParserPhase phase, int windowSize) {
+        if(phase == TRAINING)
+            throw new IllegalArgumentException("Training documents can not be processed as a stream.");
+
+        Document doc = initDocument(null, context, phase, createConfig(phase));
+        doc.setWindowSize(windowSize);
+
+        try {
+            doc.setFeedbackTriggerRound();
+
+            int pos = 0;
+            for(String chunk: chunks) {
+                int begin = doc.length();
+                doc.append(chunk);
+
+                pos = getTokenizer().tokenize(chunk, begin, pos, context, (n, p, b, e) ->
+                        addToken(doc, n, p, b, e)
+                );
+
+                doc.process(MAX_ROUND, INFERENCE);
+                doc.slideWindow();
+            }
+        } catch(Exception e) {
+            log.warn("Error while processing stream:", e);
+        } finally {
+            doc.disconnect();
+        }
+
+        return doc;
+    }
+
+    /**
+     * Processes many short inputs, like single words or search queries, as a {@link ThoughtBatch}. The documents
+     * share a single config and are inferred and annealed jointly, but their activations remain isolated from each
+     * other. The tokens are added through {@link #addTokens(Document, Context)}, the per document hooks
+     * {@link #infer(Document, Context, ParserPhase)} and {@link #anneal(Document)} are not used.
+     *
+     * Training is not supported by the batch, training documents have to be passed to
+     * {@link #process(String, Context, ParserPhase)} one at a time.
+     */
+    public List<Document> processBatch(Iterable<String> txts, C context, ParserPhase phase) {
+        if(phase == TRAINING)
+            throw new IllegalArgumentException("Training documents can not be processed as a batch.");
+
+        Config conf = createConfig(phase);
+        ThoughtBatch<Document> batch = new ThoughtBatch<>(getTemplateModel().getModel(), conf);
+
+        try {
+            for(String txt: txts) {
+                Document doc = batch.add(initDocument(txt, context, phase, conf));
+                batch.run(doc, () ->
+                        addTokens(doc, context)
+                );
+            }
+
+            batch.process(MAX_ROUND, INFERENCE);
+            batch.anneal();
+        } catch(Exception e) {
+            log.warn("Error while processing batch:", e);
+        } finally {
+            batch.disconnect();
+        }
+
+        return batch.getThoughts();
+    }
+
     protected void infer(Document doc, Context context, ParserPhase phase) {
         if(phase == ParserPhase.TRAINING) {
     //        debugger = AIKADebugger.createAndShowGUI(doc);
         }
 
+        addTokens(doc, context);
+
+        doc.process(MAX_ROUND, INFERENCE);
+    }
+
+    protected void addTokens(Document doc, Context context) {
         doc.setFeedbackTriggerRound();
 
-        getTokenizer().tokenize(doc, context, (n, pos, begin, end) -> {
-            TokenActivation tAct = doc.addToken(n, pos, begin, end);
-            tAct.setNet(getTemplateModel().getInputPatternNetTarget());
-        });
+        getTokenizer().tokenize(doc, context, (n, pos, begin, end) ->
+                addToken(doc, n, pos, begin, end)
+        );
+    }
 
-        doc.process(MAX_ROUND, INFERENCE);
+    protected void addToken(Document doc, TokenNeuron n, Integer pos, int begin, int end) {
+        TokenActivation tAct = doc.addToken(n, pos, begin, end);
+        tAct.setNet(getTemplateModel().getInputPatternNetTarget());
     }
 
     public void anneal(Document doc) {
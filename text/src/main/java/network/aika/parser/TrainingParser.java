@@ -16,6 +16,7 @@
  */
 package network.aika.parser;
 
+import network.aika.Config;
 import network.aika.callbacks.ActivationCheckCallback;
 import network.aika.callbacks.InstantiationCallback;
 import network.aika.elements.activations.Activation;
@@ -37,8 +38,8 @@ public abstract class TrainingParser<C extends Context> extends Parser<C> implem
     protected C currentContext;
 
     @Override
-    protected Document initDocument(String txt, C context, ParserPhase phase) {
-        Document doc = super.initDocument(txt, context, phase);
+    protected Document initDocument(String txt, C context, ParserPhase phase, Config conf) {
+        Document doc = super.initDocument(txt, context, phase, conf);
         doc.setActivationCheckCallback(this);
         doc.setInstantiationCallback(this);
 
@@ -56,7 +57,7 @@ public abstract class TrainingParser<C extends Context> extends Parser<C> implem
 
     @Override
     public Document process(String txt, C context, ParserPhase phase) {
-        Document doc = initDocument(txt, context, phase);
+        Document doc = initDocument(txt, context, phase, createConfig(phase));
 
         try {
             infer(doc, context, phase);
@@ -19,7 +19,6 @@ package network.aika.tokenizer;
 
 import network.aika.meta.AbstractTemplateModel;
 import network.aika.parser.Context;
-import network.aika.text.Document;
 
 /**
  *
@@ -34,11 +33,10 @@ public class SimpleCharTokenizer implements Tokenizer {
     }
 
     @Override
-    public void tokenize(Document doc, Context context, TokenConsumer tokenConsumer) {
-        int i = 0;
-        int pos = 0;
+    public int tokenize(String segment, int begin, int pos, Context context, TokenConsumer tokenConsumer) {
+        int i = begin;
 
-        for(char c: doc.getContent().toCharArray()) {
+        for(char c: segment.toCharArray()) {
             int j = i + 1;
 
             tokenConsumer.processToken(
@@ -52,5 +50,6 @@ public class SimpleCharTokenizer implements Tokenizer {
 
             i = j;
         }
+        return pos;
     }
 }
@@ -19,7 +19,6 @@ package network.aika.tokenizer;
 
 import network.aika.meta.AbstractTemplateModel;
 import network.aika.parser.Context;
-import network.aika.text.Document;
 
 /**
  *
@@ -34,11 +33,10 @@ public class SimpleWordTokenizer implements Tokenizer {
     }
 
     @Override
-    public void tokenize(Document doc, Context context, TokenConsumer tokenConsumer) {
-        int i = 0;
-        int pos = 0;
+    public int tokenize(String segment, int begin, int pos, Context context, TokenConsumer tokenConsumer) {
+        int i = begin;
 
-        for(String w: doc.getContent().split("[\\n\\r\\s]+")) {
+        for(String w: segment.split("[\\n\\r\\s]+")) {
             int j = i + w.length();
 
             tokenConsumer.processToken(
@@ -52,5 +50,6 @@ public class SimpleWordTokenizer implements Tokenizer {
 
             i = j + 1;
         }
+        return pos;
     }
 }
@@ -25,6 +25,17 @@ import network.aika.text.Document;
  */
 public interface Tokenizer<C extends Context> {
 
-    void tokenize(Document doc, C context, TokenConsumer tokenConsumer);
+    default void tokenize(Document doc, C context, TokenConsumer tokenConsumer) {
+        tokenize(doc.getContent(), doc.getContentOffset(), 0, context, tokenConsumer);
+    }
+
+    /**
+     * Tokenizes a segment of a document, e.g. a chunk that has just been appended to a streamed document.
+     *
+     * @param begin the absolute char position of the segment within the document
+     * @param pos the token position of the first token within the segment
+     * @return the token position following the last token of the segment
+     */
+    int tokenize(String segment, int begin, int pos, C context, TokenConsumer tokenConsumer);
 
 }
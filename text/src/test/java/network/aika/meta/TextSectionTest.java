@@ -1,5 +1,6 @@
 package network.aika.meta;
 
+import network.aika.Config;
 import network.aika.Model;
 import network.aika.debugger.AIKADebugger;
 import network.aika.elements.activations.Activation;
@@ -51,8 +52,8 @@ public class TextSectionTest extends TrainingParser<TestContext> {
     }
 
     @Override
-    protected Document initDocument(String txt, TestContext context, ParserPhase phase) {
-        Document doc = super.initDocument(txt, context, phase);
+    protected Document initDocument(String txt, TestContext context, ParserPhase phase, Config conf) {
+        Document doc = super.initDocument(txt, context, phase, conf);
         if(phase == TRAINING) {
             AIKADebugger.createAndShowGUI(doc);
         }